@@ -0,0 +1,24 @@
+package com.example.languageteacherbot.config;
+
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.flyway.FlywayMigrationStrategy;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+
+/**
+ * Lets a run skip the migration at startup without switching Flyway off. The flag is read when the
+ * context starts, so the AOT output still contains Flyway and production still migrates; only the
+ * CDS training run, which has no database, sets {@code schema.migrate-on-start=false}.
+ */
+@Configuration(proxyBeanMethods = false)
+public class FlywayConfig {
+
+    @Bean
+    FlywayMigrationStrategy flywayMigrationStrategy(@Value("${schema.migrate-on-start:true}") boolean migrateOnStart) {
+        return flyway -> {
+            if (migrateOnStart) {
+                flyway.migrate();
+            }
+        };
+    }
+}
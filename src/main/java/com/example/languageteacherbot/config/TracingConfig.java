@@ -0,0 +1,68 @@
+package com.example.languageteacherbot.config;
+
+import com.example.languageteacherbot.service.Tracer;
+import jakarta.servlet.FilterChain;
+import jakarta.servlet.ServletException;
+import jakarta.servlet.http.HttpServletRequest;
+import jakarta.servlet.http.HttpServletResponse;
+import org.aopalliance.intercept.MethodInterceptor;
+import org.springframework.aop.framework.ProxyFactory;
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.beans.factory.config.BeanPostProcessor;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.data.repository.Repository;
+import org.springframework.web.filter.OncePerRequestFilter;
+
+import java.io.IOException;
+
+/**
+ * Hooks for the update trace: the time a webhook request arrived, before its body is parsed, and a
+ * span around every Spring Data repository call.
+ */
+@Configuration(proxyBeanMethods = false)
+public class TracingConfig {
+
+    public static final String RECEIVED_AT = "com.example.languageteacherbot.receivedAt";
+
+    @Bean
+    OncePerRequestFilter receivedAtFilter() {
+        return new OncePerRequestFilter() {
+            @Override
+            protected void doFilterInternal(HttpServletRequest request, HttpServletResponse response, FilterChain chain)
+                    throws ServletException, IOException {
+                request.setAttribute(RECEIVED_AT, System.nanoTime());
+                chain.doFilter(request, response);
+            }
+        };
+    }
+
+    @Bean
+    static BeanPostProcessor repositoryTracingPostProcessor(ObjectProvider<Tracer> tracer) {
+        return new BeanPostProcessor() {
+            @Override
+            public Object postProcessAfterInitialization(Object bean, String beanName) {
+                if (!(bean instanceof Repository<?, ?>)) {
+                    return bean;
+                }
+                String repositoryName = repositoryName(bean);
+                ProxyFactory proxyFactory = new ProxyFactory(bean);
+                proxyFactory.addAdvice((MethodInterceptor) invocation -> {
+                    try (Tracer.Span ignored = tracer.getObject().span("repo", repositoryName + "." + invocation.getMethod().getName())) {
+                        return invocation.proceed();
+                    }
+                });
+                return proxyFactory.getProxy();
+            }
+        };
+    }
+
+    private static String repositoryName(Object repository) {
+        for (Class<?> type : repository.getClass().getInterfaces()) {
+            if (Repository.class.isAssignableFrom(type) && type.getName().startsWith("com.example")) {
+                return type.getSimpleName();
+            }
+        }
+        return repository.getClass().getSimpleName();
+    }
+}
@@ -0,0 +1,37 @@
+package com.example.languageteacherbot.controller;
+
+import org.springframework.context.annotation.Profile;
+import org.springframework.web.bind.annotation.*;
+
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Stand-in for the Telegram Bot API used when replaying the update journal: every method succeeds
+ * and returns a message, and calls are only counted.
+ */
+@RestController
+@Profile("replay")
+@RequestMapping("/fake-bot-api")
+public class FakeBotApiController {
+
+    private final AtomicInteger messageIds = new AtomicInteger();
+    private final Map<String, LongAdder> calls = new ConcurrentHashMap<>();
+
+    @PostMapping("/bot{token}/{method}")
+    public Map<String, Object> call(@PathVariable String method) {
+        calls.computeIfAbsent(method, m -> new LongAdder()).increment();
+        return Map.of("ok", true, "result", Map.of(
+                "message_id", messageIds.incrementAndGet(),
+                "date", System.currentTimeMillis() / 1000,
+                "chat", Map.of("id", 0)));
+    }
+
+    public Map<String, Long> getCalls() {
+        Map<String, Long> counts = new ConcurrentHashMap<>();
+        calls.forEach((method, count) -> counts.put(method, count.sum()));
+        return counts;
+    }
+}
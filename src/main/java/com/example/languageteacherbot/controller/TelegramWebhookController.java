@@ -1,7 +1,10 @@
 package com.example.languageteacherbot.controller;
 
-import com.example.languageteacherbot.service.TelegramService;
+import com.example.languageteacherbot.config.TracingConfig;
+import com.example.languageteacherbot.service.UpdateDispatcher;
+import com.example.languageteacherbot.service.UpdateJournal;
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.http.HttpStatus;
 import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.*;
 
@@ -12,11 +15,20 @@ import java.util.Map;
 public class TelegramWebhookController {
 
     @Autowired
-    private TelegramService telegramService;
+    private UpdateDispatcher updateDispatcher;
+
+    @Autowired
+    private UpdateJournal updateJournal;
 
     @PostMapping
-    public ResponseEntity<String> handleUpdate(@RequestBody Map<String, Object> update) {
-        telegramService.processUpdate(update);
-        return ResponseEntity.ok().build();
+    public ResponseEntity<Map<String, Object>> handleUpdate(@RequestBody Map<String, Object> update,
+                                                            @RequestAttribute(name = TracingConfig.RECEIVED_AT, required = false) Long receivedAt) {
+        updateJournal.append(update);
+        UpdateDispatcher.Admission admission = updateDispatcher.submit(update, receivedAt == null ? 0 : receivedAt);
+        return switch (admission.decision()) {
+            case ACCEPTED, DUPLICATE -> ResponseEntity.ok().build();
+            case SHED -> admission.reply() == null ? ResponseEntity.ok().build() : ResponseEntity.ok(admission.reply());
+            case DEFERRED -> ResponseEntity.status(HttpStatus.SERVICE_UNAVAILABLE).build();
+        };
     }
-}
\ No newline at end of file
+}
@@ -0,0 +1,52 @@
+package com.example.languageteacherbot.entity;
+
+import jakarta.persistence.*;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+import lombok.AllArgsConstructor;
+
+import java.time.LocalDateTime;
+
+@Entity
+@Table(name = "broadcast_jobs")
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class BroadcastJob {
+    @Id
+    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    private Long id;
+
+    @Column(name = "job_key", nullable = false, unique = true, length = 64)
+    private String jobKey;
+
+    @Enumerated(EnumType.STRING)
+    @Column(nullable = false, length = 16)
+    private Kind kind;
+
+    @Enumerated(EnumType.STRING)
+    @Column(nullable = false, length = 16)
+    private Status status;
+
+    @Column(length = 4096)
+    private String text;
+
+    @Column(name = "last_chat_id", nullable = false)
+    private Long lastChatId;
+
+    @Column(name = "sent_count", nullable = false)
+    private int sentCount;
+
+    @Column(name = "failed_count", nullable = false)
+    private int failedCount;
+
+    @Column(name = "created_at", nullable = false)
+    private LocalDateTime createdAt;
+
+    @Column(name = "finished_at")
+    private LocalDateTime finishedAt;
+
+    public enum Kind { REMINDER, BROADCAST }
+
+    public enum Status { PENDING, RUNNING, DONE }
+}
@@ -0,0 +1,44 @@
+package com.example.languageteacherbot.entity;
+
+import jakarta.persistence.*;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+import lombok.AllArgsConstructor;
+
+import java.io.Serializable;
+import java.time.LocalDateTime;
+
+@Entity
+@Table(name = "leaderboard_scores")
+@IdClass(LeaderboardScore.Key.class)
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class LeaderboardScore {
+    @Id
+    @Column(length = 16)
+    private String period;
+
+    @Id
+    @Column(length = 16)
+    private String board;
+
+    @Id
+    @Column(name = "chat_id")
+    private Long chatId;
+
+    @Column(nullable = false)
+    private int score;
+
+    @Column(name = "updated_at", nullable = false)
+    private LocalDateTime updatedAt;
+
+    @Data
+    @NoArgsConstructor
+    @AllArgsConstructor
+    public static class Key implements Serializable {
+        private String period;
+        private String board;
+        private Long chatId;
+    }
+}
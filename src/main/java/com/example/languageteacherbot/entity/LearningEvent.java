@@ -0,0 +1,72 @@
+package com.example.languageteacherbot.entity;
+
+import jakarta.persistence.*;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+import lombok.AllArgsConstructor;
+
+import java.io.Serializable;
+import java.time.LocalDateTime;
+
+@Entity
+@Table(name = "learning_events",
+    indexes = @Index(name = "idx_learning_events_occurred_at", columnList = "occurred_at"))
+@IdClass(LearningEvent.Key.class)
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class LearningEvent {
+    @Id
+    @GeneratedValue(strategy = GenerationType.SEQUENCE, generator = "learning_events_seq")
+    @SequenceGenerator(name = "learning_events_seq", sequenceName = "learning_events_seq", allocationSize = 50)
+    private Long id;
+
+    @Id
+    @Column(name = "occurred_at", nullable = false)
+    private LocalDateTime occurredAt;
+
+    @Column(name = "chat_id", nullable = false)
+    private Long chatId;
+
+    @Enumerated(EnumType.STRING)
+    @Column(name = "event_type", nullable = false, length = 16)
+    private Type type;
+
+    @Column(name = "game_type", nullable = false, length = 32)
+    private String gameType;
+
+    @Column(name = "word_id")
+    private Long wordId;
+
+    @Enumerated(EnumType.STRING)
+    @Column(length = 16)
+    private Outcome outcome;
+
+    @Column(name = "latency_ms")
+    private Long latencyMs;
+
+    @Column(name = "correct_count")
+    private Integer correctCount;
+
+    @Column(name = "total_count")
+    private Integer totalCount;
+
+    public enum Type {
+        SHOWN, ANSWERED, GAME_FINISHED
+    }
+
+    public enum Outcome {
+        CORRECT, INCORRECT, DONT_KNOW
+    }
+
+    /**
+     * The key includes {@code occurred_at} so the table can be range-partitioned by it.
+     */
+    @Data
+    @NoArgsConstructor
+    @AllArgsConstructor
+    public static class Key implements Serializable {
+        private Long id;
+        private LocalDateTime occurredAt;
+    }
+}
@@ -0,0 +1,25 @@
+package com.example.languageteacherbot.entity;
+
+import jakarta.persistence.*;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+import lombok.AllArgsConstructor;
+
+import java.time.LocalDateTime;
+
+@Entity
+@Table(name = "session_snapshots")
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class SessionSnapshot {
+    @Id
+    @Column(name = "chat_id")
+    private Long chatId;
+
+    @Column(nullable = false)
+    private byte[] data;
+
+    @Column(name = "saved_at", nullable = false)
+    private LocalDateTime savedAt;
+}
@@ -0,0 +1,48 @@
+package com.example.languageteacherbot.entity;
+
+import jakarta.persistence.*;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+import lombok.AllArgsConstructor;
+
+import java.time.LocalDate;
+import java.util.HashMap;
+import java.util.Map;
+
+@Entity
+@Table(name = "user_stats")
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class UserStats {
+    @Id
+    @Column(name = "chat_id")
+    private Long chatId;
+
+    @Column(name = "answered_count", nullable = false)
+    private long answeredCount;
+
+    @Column(name = "correct_count", nullable = false)
+    private long correctCount;
+
+    @Column(name = "words_learned", nullable = false)
+    private int wordsLearned;
+
+    @Column(name = "current_streak", nullable = false)
+    private int currentStreak;
+
+    @Column(name = "best_streak", nullable = false)
+    private int bestStreak;
+
+    @Column(name = "last_study_date")
+    private LocalDate lastStudyDate;
+
+    @Column(name = "learned_word_ids")
+    private byte[] learnedWordIds;
+
+    @ElementCollection(fetch = FetchType.EAGER)
+    @CollectionTable(name = "user_stats_levels", joinColumns = @JoinColumn(name = "chat_id"))
+    @MapKeyColumn(name = "level_key", length = 16)
+    @Column(name = "learned_count", nullable = false)
+    private Map<String, Integer> learnedByLevel = new HashMap<>();
+}
@@ -0,0 +1,45 @@
+package com.example.languageteacherbot.entity;
+
+import jakarta.persistence.*;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+import lombok.AllArgsConstructor;
+
+import java.io.Serializable;
+import java.time.LocalDateTime;
+
+@Entity
+@Table(name = "word_media")
+@IdClass(WordMedia.Key.class)
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class WordMedia {
+    @Id
+    @Column(name = "word_id")
+    private Long wordId;
+
+    @Id
+    @Enumerated(EnumType.STRING)
+    @Column(length = 16)
+    private Kind kind;
+
+    @Column(name = "telegram_type", nullable = false, length = 16)
+    private String telegramType;
+
+    @Column(name = "file_id", nullable = false)
+    private String fileId;
+
+    @Column(name = "uploaded_at", nullable = false)
+    private LocalDateTime uploadedAt;
+
+    public enum Kind { IMAGE, AUDIO }
+
+    @Data
+    @NoArgsConstructor
+    @AllArgsConstructor
+    public static class Key implements Serializable {
+        private Long wordId;
+        private Kind kind;
+    }
+}
@@ -0,0 +1,85 @@
+package com.example.languageteacherbot.migration;
+
+import com.example.languageteacherbot.service.CsvLineParser;
+import org.flywaydb.core.api.migration.BaseJavaMigration;
+import org.flywaydb.core.api.migration.Context;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.core.io.ClassPathResource;
+import org.springframework.stereotype.Component;
+
+import java.io.BufferedReader;
+import java.io.InputStreamReader;
+import java.nio.charset.StandardCharsets;
+import java.sql.Connection;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.Statement;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Set;
+
+/**
+ * Loads the shipped vocabulary into {@code words}. Words already present (same word and language)
+ * are skipped, so databases that were filled by hand before migrations existed are left as they are.
+ */
+@Component
+public class V4__Seed_vocabulary extends BaseJavaMigration {
+
+    private static final Logger log = LoggerFactory.getLogger(V4__Seed_vocabulary.class);
+    private static final String SOURCE = "wordsA1.csv";
+    private static final int BATCH_SIZE = 500;
+
+    @Override
+    public void migrate(Context context) throws Exception {
+        Connection connection = context.getConnection();
+
+        Set<String> existing = new HashSet<>();
+        try (Statement statement = connection.createStatement();
+             ResultSet rows = statement.executeQuery("select word, lang from words")) {
+            while (rows.next()) {
+                existing.add(key(rows.getString(1), rows.getString(2)));
+            }
+        }
+
+        int inserted = 0;
+        try (BufferedReader reader = new BufferedReader(new InputStreamReader(
+                     new ClassPathResource(SOURCE).getInputStream(), StandardCharsets.UTF_8));
+             PreparedStatement insert = connection.prepareStatement(
+                     "insert into words (word, translation, transcription, level, lang) values (?, ?, ?, ?, ?)")) {
+            reader.readLine();
+            String line;
+            int batched = 0;
+            while ((line = reader.readLine()) != null) {
+                if (line.isBlank()) {
+                    continue;
+                }
+                List<String> fields = CsvLineParser.parse(line, ',');
+                String word = fields.get(0);
+                String lang = fields.get(4);
+                if (!existing.add(key(word, lang))) {
+                    continue;
+                }
+                insert.setString(1, word);
+                insert.setString(2, fields.get(1));
+                insert.setString(3, fields.get(2).isEmpty() ? null : fields.get(2));
+                insert.setString(4, fields.get(3));
+                insert.setString(5, lang);
+                insert.addBatch();
+                inserted++;
+                if (++batched == BATCH_SIZE) {
+                    insert.executeBatch();
+                    batched = 0;
+                }
+            }
+            if (batched > 0) {
+                insert.executeBatch();
+            }
+        }
+        log.info("Seeded {} words from {}", inserted, SOURCE);
+    }
+
+    private static String key(String word, String lang) {
+        return word + '\u0000' + lang;
+    }
+}
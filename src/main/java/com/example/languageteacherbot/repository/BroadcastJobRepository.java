@@ -0,0 +1,22 @@
+package com.example.languageteacherbot.repository;
+
+import com.example.languageteacherbot.entity.BroadcastJob;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.util.Optional;
+
+public interface BroadcastJobRepository extends JpaRepository<BroadcastJob, Long> {
+    Optional<BroadcastJob> findFirstByStatusNotOrderByIdAsc(BroadcastJob.Status status);
+    boolean existsByJobKey(String jobKey);
+
+    @Transactional
+    @Modifying
+    @Query("update BroadcastJob j set j.lastChatId = :lastChatId, j.sentCount = :sentCount, j.failedCount = :failedCount " +
+           "where j.id = :id")
+    int saveProgress(@Param("id") Long id, @Param("lastChatId") Long lastChatId,
+                     @Param("sentCount") int sentCount, @Param("failedCount") int failedCount);
+}
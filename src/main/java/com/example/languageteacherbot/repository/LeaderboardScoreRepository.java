@@ -0,0 +1,11 @@
+package com.example.languageteacherbot.repository;
+
+import com.example.languageteacherbot.entity.LeaderboardScore;
+import org.springframework.data.jpa.repository.JpaRepository;
+
+import java.util.Collection;
+import java.util.List;
+
+public interface LeaderboardScoreRepository extends JpaRepository<LeaderboardScore, LeaderboardScore.Key> {
+    List<LeaderboardScore> findByPeriodIn(Collection<String> periods);
+}
@@ -0,0 +1,7 @@
+package com.example.languageteacherbot.repository;
+
+import com.example.languageteacherbot.entity.LearningEvent;
+import org.springframework.data.jpa.repository.JpaRepository;
+
+public interface LearningEventRepository extends JpaRepository<LearningEvent, LearningEvent.Key>, LearningEventRepositoryCustom {
+}
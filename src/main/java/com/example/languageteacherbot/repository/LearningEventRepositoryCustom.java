@@ -0,0 +1,15 @@
+package com.example.languageteacherbot.repository;
+
+import com.example.languageteacherbot.entity.LearningEvent;
+
+import java.util.List;
+
+public interface LearningEventRepositoryCustom {
+
+    /**
+     * Persists new events without the lookup {@code saveAll} does for them: the key includes
+     * {@code occurred_at}, which is always set, so Spring Data would take every event for an
+     * existing one and merge it.
+     */
+    void insertAll(List<LearningEvent> events);
+}
@@ -0,0 +1,22 @@
+package com.example.languageteacherbot.repository;
+
+import com.example.languageteacherbot.entity.LearningEvent;
+import jakarta.persistence.EntityManager;
+import jakarta.persistence.PersistenceContext;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.util.List;
+
+class LearningEventRepositoryImpl implements LearningEventRepositoryCustom {
+
+    @PersistenceContext
+    private EntityManager entityManager;
+
+    @Override
+    @Transactional
+    public void insertAll(List<LearningEvent> events) {
+        for (LearningEvent event : events) {
+            entityManager.persist(event);
+        }
+    }
+}
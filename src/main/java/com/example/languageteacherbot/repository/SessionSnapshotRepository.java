@@ -0,0 +1,22 @@
+package com.example.languageteacherbot.repository;
+
+import com.example.languageteacherbot.entity.SessionSnapshot;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.time.LocalDateTime;
+import java.util.List;
+
+public interface SessionSnapshotRepository extends JpaRepository<SessionSnapshot, Long> {
+
+    @Query("select s.chatId from SessionSnapshot s")
+    List<Long> findAllChatIds();
+
+    @Transactional
+    @Modifying
+    @Query("delete from SessionSnapshot s where s.savedAt < :cutoff")
+    int deleteSavedBefore(@Param("cutoff") LocalDateTime cutoff);
+}
@@ -1,10 +1,39 @@
 package com.example.languageteacherbot.repository;
 
 import com.example.languageteacherbot.entity.User;
+import org.springframework.data.domain.Pageable;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+import org.springframework.transaction.annotation.Transactional;
 
+import java.time.LocalDateTime;
+import java.util.Collection;
+import java.util.List;
 import java.util.Optional;
 
 public interface UserRepository extends JpaRepository<User, Long> {
     Optional<User> findByChatId(Long chatId);
-}
\ No newline at end of file
+
+    @Query("select u.chatId as chatId, u.nativeLanguage as nativeLanguage from User u " +
+           "where u.chatId > :after order by u.chatId")
+    List<ChatTarget> findTargetsAfter(@Param("after") Long after, Pageable pageable);
+
+    @Query("select u.chatId as chatId, u.nativeLanguage as nativeLanguage from User u " +
+           "where u.chatId > :after and (u.lastActivityAt is null or u.lastActivityAt < :inactiveSince) " +
+           "order by u.chatId")
+    List<ChatTarget> findInactiveTargetsAfter(@Param("after") Long after,
+                                              @Param("inactiveSince") LocalDateTime inactiveSince,
+                                              Pageable pageable);
+
+    @Transactional
+    @Modifying
+    @Query("update User u set u.lastActivityAt = :at where u.chatId in :chatIds")
+    int updateLastActivityAt(@Param("chatIds") Collection<Long> chatIds, @Param("at") LocalDateTime at);
+
+    interface ChatTarget {
+        Long getChatId();
+        String getNativeLanguage();
+    }
+}
@@ -0,0 +1,7 @@
+package com.example.languageteacherbot.repository;
+
+import com.example.languageteacherbot.entity.UserStats;
+import org.springframework.data.jpa.repository.JpaRepository;
+
+public interface UserStatsRepository extends JpaRepository<UserStats, Long> {
+}
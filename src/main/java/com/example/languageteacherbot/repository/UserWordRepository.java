@@ -1,13 +1,28 @@
 package com.example.languageteacherbot.repository;
 
 import com.example.languageteacherbot.entity.UserWord;
+import org.springframework.data.jpa.repository.EntityGraph;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
 
+import java.util.Collection;
 import java.util.List;
 import java.util.Optional;
 
 public interface UserWordRepository extends JpaRepository<UserWord, Long> {
+    @EntityGraph(attributePaths = "word")
     List<UserWord> findByUserChatId(Long userChatId);
     Optional<UserWord> findByUserChatIdAndWordId(Long userChatId, Long wordId);
     void deleteByUserChatIdAndWordId(Long userChatId, Long wordId);
-}
\ No newline at end of file
+    boolean existsByUserChatId(Long userChatId);
+
+    @Query("select uw.userChatId as chatId, count(uw) as dueCount from UserWord uw " +
+           "where uw.markedAsUnknown = true and uw.userChatId in :chatIds group by uw.userChatId")
+    List<DueCount> countDueByUserChatIds(@Param("chatIds") Collection<Long> chatIds);
+
+    interface DueCount {
+        Long getChatId();
+        long getDueCount();
+    }
+}
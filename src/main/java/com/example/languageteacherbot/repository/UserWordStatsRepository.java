@@ -0,0 +1,7 @@
+package com.example.languageteacherbot.repository;
+
+import com.example.languageteacherbot.entity.UserWordStats;
+import org.springframework.data.jpa.repository.JpaRepository;
+
+public interface UserWordStatsRepository extends JpaRepository<UserWordStats, Long> {
+}
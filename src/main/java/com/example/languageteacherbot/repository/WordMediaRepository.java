@@ -0,0 +1,7 @@
+package com.example.languageteacherbot.repository;
+
+import com.example.languageteacherbot.entity.WordMedia;
+import org.springframework.data.jpa.repository.JpaRepository;
+
+public interface WordMediaRepository extends JpaRepository<WordMedia, WordMedia.Key> {
+}
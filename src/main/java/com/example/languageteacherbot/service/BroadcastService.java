@@ -0,0 +1,271 @@
+package com.example.languageteacherbot.service;
+
+import com.example.languageteacherbot.entity.BroadcastJob;
+import com.example.languageteacherbot.repository.BroadcastJobRepository;
+import com.example.languageteacherbot.repository.UserRepository;
+import com.example.languageteacherbot.repository.UserWordRepository;
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+import org.springframework.web.client.HttpClientErrorException;
+
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.util.*;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+
+/**
+ * Daily "words due" reminders and admin broadcasts. A job walks the users table in chat id order,
+ * one keyset page at a time. Every {@code broadcast.checkpoint-every} deliveries, or once
+ * {@code broadcast.checkpoint-interval-ms} has passed, it stores the last processed chat id so that
+ * a restart continues close to where the previous run stopped and re-sends at most the messages
+ * since that checkpoint. All messages go through a shared token bucket to stay under Telegram's
+ * global send limit.
+ */
+@Service
+public class BroadcastService {
+
+    private static final Logger log = LoggerFactory.getLogger(BroadcastService.class);
+
+    @Autowired
+    private BroadcastJobRepository broadcastJobRepository;
+
+    @Autowired
+    private UserRepository userRepository;
+
+    @Autowired
+    private UserWordRepository userWordRepository;
+
+    @Autowired
+    private TelegramApiClient telegramApiClient;
+
+    @Autowired
+    private ObjectMapper objectMapper;
+
+    @Value("${broadcast.admin-chat-ids:}")
+    private Set<Long> adminChatIds;
+
+    @Value("${broadcast.rate-per-second:25}")
+    private double ratePerSecond;
+
+    @Value("${broadcast.chunk-size:200}")
+    private int chunkSize;
+
+    @Value("${broadcast.checkpoint-every:100}")
+    private int checkpointEvery;
+
+    @Value("${broadcast.checkpoint-interval-ms:1000}")
+    private long checkpointIntervalMs;
+
+    @Value("${reminders.enabled:true}")
+    private boolean remindersEnabled;
+
+    @Value("${reminders.send-hour:17}")
+    private int reminderSendHour;
+
+    @Value("${reminders.inactive-hours:20}")
+    private int reminderInactiveHours;
+
+    private TokenBucket rateLimiter;
+    private final AtomicBoolean running = new AtomicBoolean();
+    private final ExecutorService worker = Executors.newSingleThreadExecutor(r -> {
+        Thread thread = new Thread(r, "broadcast-worker");
+        thread.setDaemon(true);
+        return thread;
+    });
+
+    @PostConstruct
+    void init() {
+        rateLimiter = new TokenBucket(Math.max(1, (int) ratePerSecond), ratePerSecond);
+    }
+
+    public boolean isAdmin(Long chatId) {
+        return adminChatIds.contains(chatId);
+    }
+
+    public BroadcastJob startBroadcast(String text) {
+        BroadcastJob job = newJob("broadcast-" + UUID.randomUUID(), BroadcastJob.Kind.BROADCAST);
+        job.setText(text);
+        job = broadcastJobRepository.save(job);
+        log.info("Queued broadcast job {}", job.getId());
+        kick();
+        return job;
+    }
+
+    @Scheduled(fixedDelayString = "${reminders.poll-interval-ms:60000}")
+    public void tick() {
+        if (remindersEnabled && LocalDateTime.now().getHour() >= reminderSendHour) {
+            String key = "reminder-" + LocalDate.now();
+            if (!broadcastJobRepository.existsByJobKey(key)) {
+                broadcastJobRepository.save(newJob(key, BroadcastJob.Kind.REMINDER));
+                log.info("Queued daily reminder job {}", key);
+            }
+        }
+        kick();
+    }
+
+    @PreDestroy
+    void shutdown() throws InterruptedException {
+        worker.shutdownNow();
+        worker.awaitTermination(10, TimeUnit.SECONDS);
+    }
+
+    private void kick() {
+        if (running.compareAndSet(false, true)) {
+            worker.execute(() -> {
+                try {
+                    runPendingJobs();
+                } catch (Exception e) {
+                    log.error("Broadcast worker failed", e);
+                } finally {
+                    running.set(false);
+                }
+            });
+        }
+    }
+
+    private void runPendingJobs() {
+        Optional<BroadcastJob> next;
+        while (!Thread.currentThread().isInterrupted()
+                && (next = broadcastJobRepository.findFirstByStatusNotOrderByIdAsc(BroadcastJob.Status.DONE)).isPresent()) {
+            BroadcastJob job = next.get();
+            if (job.getStatus() == BroadcastJob.Status.PENDING) {
+                job.setStatus(BroadcastJob.Status.RUNNING);
+                job = broadcastJobRepository.save(job);
+            } else {
+                log.info("Resuming {} job {} after chat id {}", job.getKind(), job.getId(), job.getLastChatId());
+            }
+            if (!runJob(job)) {
+                return;
+            }
+        }
+    }
+
+    private boolean runJob(BroadcastJob job) {
+        LocalDateTime inactiveSince = job.getCreatedAt().minusHours(reminderInactiveHours);
+        int unsaved = 0;
+        long checkpointedAt = System.nanoTime();
+        while (true) {
+            PageRequest page = PageRequest.of(0, chunkSize);
+            List<UserRepository.ChatTarget> targets = job.getKind() == BroadcastJob.Kind.REMINDER
+                    ? userRepository.findInactiveTargetsAfter(job.getLastChatId(), inactiveSince, page)
+                    : userRepository.findTargetsAfter(job.getLastChatId(), page);
+            if (targets.isEmpty()) {
+                job.setStatus(BroadcastJob.Status.DONE);
+                job.setFinishedAt(LocalDateTime.now());
+                broadcastJobRepository.save(job);
+                log.info("{} job {} finished: {} sent, {} failed", job.getKind(), job.getId(),
+                        job.getSentCount(), job.getFailedCount());
+                return true;
+            }
+
+            Map<Long, Long> dueCounts = job.getKind() == BroadcastJob.Kind.REMINDER ? dueCounts(targets) : Map.of();
+            try {
+                for (UserRepository.ChatTarget target : targets) {
+                    String text = job.getKind() == BroadcastJob.Kind.REMINDER
+                            ? reminderText(target.getNativeLanguage(), dueCounts.getOrDefault(target.getChatId(), 0L))
+                            : job.getText();
+                    if (text != null) {
+                        if (send(target.getChatId(), text)) {
+                            job.setSentCount(job.getSentCount() + 1);
+                        } else {
+                            job.setFailedCount(job.getFailedCount() + 1);
+                        }
+                        unsaved++;
+                    }
+                    job.setLastChatId(target.getChatId());
+                    if (unsaved > 0 && (unsaved >= checkpointEvery
+                            || System.nanoTime() - checkpointedAt >= TimeUnit.MILLISECONDS.toNanos(checkpointIntervalMs))) {
+                        checkpoint(job);
+                        unsaved = 0;
+                        checkpointedAt = System.nanoTime();
+                    }
+                }
+            } catch (InterruptedException e) {
+                checkpoint(job);
+                Thread.currentThread().interrupt();
+                return false;
+            }
+        }
+    }
+
+    private void checkpoint(BroadcastJob job) {
+        broadcastJobRepository.saveProgress(job.getId(), job.getLastChatId(), job.getSentCount(), job.getFailedCount());
+    }
+
+    private Map<Long, Long> dueCounts(List<UserRepository.ChatTarget> targets) {
+        List<Long> chatIds = new ArrayList<>(targets.size());
+        for (UserRepository.ChatTarget target : targets) {
+            chatIds.add(target.getChatId());
+        }
+        Map<Long, Long> counts = new HashMap<>();
+        for (UserWordRepository.DueCount count : userWordRepository.countDueByUserChatIds(chatIds)) {
+            counts.put(count.getChatId(), count.getDueCount());
+        }
+        return counts;
+    }
+
+    private String reminderText(String nativeLang, long dueCount) {
+        if (dueCount == 0) {
+            return null;
+        }
+        if ("zh".equals(nativeLang)) {
+            return "⏰ 你有 " + dueCount + " 个单词需要复习。打开“我的单词”或玩一局单词卡片吧！";
+        }
+        return "⏰ У тебя " + dueCount + " слов на повторение. Загляни в «Мои слова» или сыграй в карточки!";
+    }
+
+    private boolean send(Long chatId, String text) throws InterruptedException {
+        Map<String, Object> request = new HashMap<>();
+        request.put("chat_id", chatId);
+        request.put("text", text);
+        for (int attempt = 0; attempt < 2; attempt++) {
+            rateLimiter.acquire();
+            try {
+                telegramApiClient.call("sendMessage", request);
+                return true;
+            } catch (HttpClientErrorException.TooManyRequests e) {
+                TimeUnit.SECONDS.sleep(retryAfterSeconds(e));
+            } catch (HttpClientErrorException e) {
+                log.debug("Broadcast to {} rejected: {}", chatId, e.getStatusCode());
+                return false;
+            } catch (Exception e) {
+                log.debug("Broadcast to {} failed", chatId, e);
+                return false;
+            }
+        }
+        return false;
+    }
+
+    private long retryAfterSeconds(HttpClientErrorException e) {
+        try {
+            JsonNode retryAfter = objectMapper.readTree(e.getResponseBodyAsString()).path("parameters").path("retry_after");
+            if (retryAfter.canConvertToLong()) {
+                return retryAfter.asLong();
+            }
+        } catch (Exception ignored) {
+        }
+        return 5;
+    }
+
+    private BroadcastJob newJob(String key, BroadcastJob.Kind kind) {
+        BroadcastJob job = new BroadcastJob();
+        job.setJobKey(key);
+        job.setKind(kind);
+        job.setStatus(BroadcastJob.Status.PENDING);
+        job.setLastChatId(Long.MIN_VALUE);
+        job.setCreatedAt(LocalDateTime.now());
+        return job;
+    }
+}
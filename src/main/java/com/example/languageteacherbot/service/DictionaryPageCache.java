@@ -0,0 +1,150 @@
+package com.example.languageteacherbot.service;
+
+import com.example.languageteacherbot.entity.Word;
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.context.event.EventListener;
+import org.springframework.stereotype.Service;
+import org.telegram.telegrambots.meta.api.objects.replykeyboard.InlineKeyboardMarkup;
+import org.telegram.telegrambots.meta.api.objects.replykeyboard.buttons.InlineKeyboardButton;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * Fully rendered dictionary pages (message text plus serialized inline keyboard) per
+ * target language, level and interface language. All pages of a level are rendered together
+ * the first time it is opened and dropped when the vocabulary is reloaded.
+ */
+@Service
+public class DictionaryPageCache {
+
+    @Autowired
+    private VocabularyService vocabularyService;
+
+    @Autowired
+    private PagePacker pagePacker;
+
+    @Autowired
+    private ObjectMapper objectMapper;
+
+    private final Map<String, DictionaryPages> cache = new ConcurrentHashMap<>();
+
+    public record RenderedPage(String text, String keyboardJson) {
+    }
+
+    public record DictionaryPages(long vocabularyVersion, List<RenderedPage> pages) {
+        public int pageCount() {
+            return pages.size();
+        }
+    }
+
+    public DictionaryPages getPages(String targetLang, String level, String nativeLang) {
+        Vocabulary vocabulary = vocabularyService.getVocabulary();
+        String key = targetLang + ":" + level + ":" + nativeLang;
+        DictionaryPages pages = cache.get(key);
+        if (pages == null || pages.vocabularyVersion() != vocabulary.getVersion()) {
+            pages = render(vocabulary, targetLang, level, nativeLang);
+            cache.put(key, pages);
+        }
+        return pages;
+    }
+
+    public int pageCount(String targetLang, String level, String nativeLang) {
+        return getPages(targetLang, level, nativeLang).pageCount();
+    }
+
+    @EventListener
+    public void onVocabularyReloaded(VocabularyReloadedEvent event) {
+        cache.clear();
+    }
+
+    private DictionaryPages render(Vocabulary vocabulary, String targetLang, String level, String nativeLang) {
+        List<Word> allWords = vocabulary.wordsFor(targetLang, level);
+        int headerLength = header(nativeLang, allWords.size(), allWords.size()).length();
+
+        List<String> lines = new ArrayList<>(allWords.size());
+        for (Word w : allWords) {
+            String line;
+            if (w.getTranscription() != null && !w.getTranscription().isEmpty()) {
+                line = "• " + PagePacker.escapeMarkdown(w.getWord()) + " (" + PagePacker.escapeMarkdown(w.getTranscription()) + ") — " + PagePacker.escapeMarkdown(w.getTranslation()) + "\n";
+            } else {
+                line = "• " + PagePacker.escapeMarkdown(w.getWord()) + " — " + PagePacker.escapeMarkdown(w.getTranslation()) + "\n";
+            }
+            lines.add(pagePacker.fit(line, headerLength));
+        }
+
+        int[] boundaries = pagePacker.boundaries(lines, headerLength);
+        int totalPages = pagePacker.pageCount(boundaries);
+
+        List<RenderedPage> pages = new ArrayList<>(totalPages);
+        for (int page = 0; page < totalPages; page++) {
+            StringBuilder sb = new StringBuilder(header(nativeLang, page + 1, totalPages));
+            for (String line : lines.subList(boundaries[page], boundaries[page + 1])) {
+                sb.append(line);
+            }
+
+            InlineKeyboardMarkup keyboard = createDictionaryInlineKeyboard(targetLang, level, nativeLang, page, totalPages);
+            pages.add(new RenderedPage(sb.toString(), toJson(keyboard)));
+        }
+        return new DictionaryPages(vocabulary.getVersion(), List.copyOf(pages));
+    }
+
+    private static String header(String nativeLang, int page, int totalPages) {
+        if (nativeLang.equals("ru")) {
+            return "📖 Словарь (" + page + "/" + totalPages + "):\n\n";
+        }
+        return "📖 词典 (" + page + "/" + totalPages + "):\n\n";
+    }
+
+    private InlineKeyboardMarkup createDictionaryInlineKeyboard(String targetLang, String level, String nativeLang,
+                                                                int currentPage, int totalPages) {
+        InlineKeyboardMarkup keyboard = new InlineKeyboardMarkup();
+        List<List<InlineKeyboardButton>> rows = new ArrayList<>();
+        String pageKey = ":" + targetLang + ":" + level + ":" + nativeLang;
+
+        List<InlineKeyboardButton> navRow = new ArrayList<>();
+        if (currentPage > 0) {
+            InlineKeyboardButton backButton = new InlineKeyboardButton();
+            backButton.setText(nativeLang.equals("ru") ? "⬅️ Назад" : "⬅️ 上一页");
+            backButton.setCallbackData("dict_prev:" + (currentPage - 1) + pageKey);
+            navRow.add(backButton);
+        }
+        if (currentPage < totalPages - 1) {
+            InlineKeyboardButton nextButton = new InlineKeyboardButton();
+            nextButton.setText(nativeLang.equals("ru") ? "Вперёд ➡️" : "下一页 ➡️");
+            nextButton.setCallbackData("dict_next:" + (currentPage + 1) + pageKey);
+            navRow.add(nextButton);
+        }
+
+        if (!navRow.isEmpty()) {
+            rows.add(navRow);
+        }
+
+        InlineKeyboardButton searchButton = new InlineKeyboardButton();
+        searchButton.setText(nativeLang.equals("ru") ? "🔍 Поиск" : "🔍 搜索");
+        searchButton.setCallbackData("dict_search");
+        rows.add(List.of(searchButton));
+
+        List<InlineKeyboardButton> menuRow = new ArrayList<>();
+        InlineKeyboardButton menuButton = new InlineKeyboardButton();
+        menuButton.setText(nativeLang.equals("ru") ? "🔙 Главное меню" : "🔙 主菜单");
+        menuButton.setCallbackData("main_menu");
+        menuRow.add(menuButton);
+        rows.add(menuRow);
+
+        keyboard.setKeyboard(rows);
+        return keyboard;
+    }
+
+    private String toJson(InlineKeyboardMarkup keyboard) {
+        try {
+            return objectMapper.writeValueAsString(keyboard);
+        } catch (JsonProcessingException e) {
+            throw new IllegalStateException("Cannot serialize dictionary keyboard", e);
+        }
+    }
+}
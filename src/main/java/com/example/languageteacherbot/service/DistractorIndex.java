@@ -0,0 +1,111 @@
+package com.example.languageteacherbot.service;
+
+import com.example.languageteacherbot.entity.Word;
+
+import java.util.*;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.regex.Pattern;
+
+/**
+ * Wrong answer candidates for multiple-choice flashcards. For every word the closest
+ * {@value #CANDIDATES_PER_WORD} words of the same language and level are ranked once, preferring
+ * the same rough part of speech and a similar translation length. Words that share a
+ * translation variant with the answer are never candidates.
+ */
+public class DistractorIndex {
+
+    static final int CANDIDATES_PER_WORD = 8;
+
+    private static final Pattern TRANSLATION_SEPARATOR = Pattern.compile("[,;]");
+
+    private enum PartOfSpeech { VERB, ADJECTIVE, OTHER }
+
+    private final Map<Long, Word[]> candidates;
+
+    public DistractorIndex(Collection<List<Word>> levels) {
+        Map<Long, Word[]> result = new HashMap<>();
+        for (List<Word> level : levels) {
+            int size = level.size();
+            List<Set<String>> variants = new ArrayList<>(size);
+            PartOfSpeech[] partsOfSpeech = new PartOfSpeech[size];
+            int[] lengths = new int[size];
+            for (int i = 0; i < size; i++) {
+                Word word = level.get(i);
+                variants.add(translationVariants(word.getTranslation()));
+                partsOfSpeech[i] = partOfSpeech(word);
+                lengths[i] = word.getTranslation().length();
+            }
+
+            for (int i = 0; i < size; i++) {
+                PriorityQueue<int[]> closest = new PriorityQueue<>((a, b) -> b[1] != a[1] ? Integer.compare(b[1], a[1]) : Integer.compare(b[0], a[0]));
+                for (int j = 0; j < size; j++) {
+                    if (i == j || !Collections.disjoint(variants.get(i), variants.get(j))) {
+                        continue;
+                    }
+                    int distance = Math.abs(lengths[i] - lengths[j]) + (partsOfSpeech[i] == partsOfSpeech[j] ? 0 : 20);
+                    closest.add(new int[]{j, distance});
+                    if (closest.size() > CANDIDATES_PER_WORD) {
+                        closest.poll();
+                    }
+                }
+                Word[] words = new Word[closest.size()];
+                for (int k = words.length - 1; k >= 0; k--) {
+                    words[k] = level.get(closest.poll()[0]);
+                }
+                result.put(level.get(i).getId(), words);
+            }
+        }
+        this.candidates = Map.copyOf(result);
+    }
+
+    /**
+     * Picks {@code count} distinct distractors at random from the precomputed candidates.
+     */
+    public List<Word> pick(Word word, int count) {
+        Word[] pool = candidates.get(word.getId());
+        if (pool == null || pool.length < count) {
+            return List.of();
+        }
+        Word[] copy = pool.clone();
+        ThreadLocalRandom random = ThreadLocalRandom.current();
+        List<Word> picked = new ArrayList<>(count);
+        for (int i = 0; i < count; i++) {
+            int j = i + random.nextInt(copy.length - i);
+            Word tmp = copy[i];
+            copy[i] = copy[j];
+            copy[j] = tmp;
+            picked.add(copy[i]);
+        }
+        return picked;
+    }
+
+    static Set<String> translationVariants(String translation) {
+        Set<String> variants = new HashSet<>();
+        for (String variant : TRANSLATION_SEPARATOR.split(translation)) {
+            String normalized = WordSearchIndex.normalize(variant);
+            if (!normalized.isEmpty()) {
+                variants.add(normalized);
+            }
+        }
+        return variants;
+    }
+
+    private static PartOfSpeech partOfSpeech(Word word) {
+        if ("ru".equals(word.getLang())) {
+            return guessPartOfSpeech(word.getWord());
+        }
+        String firstVariant = TRANSLATION_SEPARATOR.split(word.getTranslation())[0].trim();
+        return guessPartOfSpeech(firstVariant);
+    }
+
+    private static PartOfSpeech guessPartOfSpeech(String text) {
+        String lower = text.toLowerCase(Locale.ROOT);
+        if (lower.endsWith("ть") || lower.endsWith("ться") || lower.endsWith("ти")) {
+            return PartOfSpeech.VERB;
+        }
+        if (lower.endsWith("的") || lower.endsWith("ый") || lower.endsWith("ий") || lower.endsWith("ой") || lower.endsWith("ая") || lower.endsWith("ое")) {
+            return PartOfSpeech.ADJECTIVE;
+        }
+        return PartOfSpeech.OTHER;
+    }
+}
@@ -0,0 +1,376 @@
+package com.example.languageteacherbot.service;
+
+import com.example.languageteacherbot.entity.Word;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Service;
+import org.springframework.web.util.HtmlUtils;
+import org.telegram.telegrambots.meta.api.objects.replykeyboard.InlineKeyboardMarkup;
+import org.telegram.telegrambots.meta.api.objects.replykeyboard.buttons.InlineKeyboardButton;
+
+import java.util.*;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.ScheduledFuture;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Multiple-choice quiz battles in group chats. Every member answers a card with inline buttons and
+ * the first correct answer wins it: the card's winner is claimed with a compare-and-set, so
+ * concurrent answers never take a lock and exactly one of them reveals the card. Scores live in
+ * memory per (chat, user) and the scoreboard message is edited at most once per
+ * {@code quiz.scoreboard-interval-ms}, however many answers arrive. Every quiz is ticked on its own
+ * schedule by a small dedicated pool, which posts cards, times them out and edits the scoreboard,
+ * so these Bot API calls never hold up the application's other scheduled jobs; answering touches no
+ * database.
+ */
+@Service
+public class GroupQuizService {
+
+    private static final Logger log = LoggerFactory.getLogger(GroupQuizService.class);
+
+    private static final int OPTIONS = 4;
+    private static final int OPTION_LABEL_LIMIT = 40;
+    private static final int SCOREBOARD_SIZE = 10;
+    private static final long NO_WINNER = 0;
+    private static final long TIMED_OUT = -1;
+
+    @Autowired
+    private TelegramApiClient telegramApiClient;
+
+    @Autowired
+    private VocabularyService vocabularyService;
+
+    @Autowired
+    private ObjectMapper objectMapper;
+
+    @Value("${quiz.card-count:10}")
+    private int cardCount;
+
+    @Value("${quiz.card-timeout-ms:20000}")
+    private long cardTimeoutMs;
+
+    @Value("${quiz.card-pause-ms:2000}")
+    private long cardPauseMs;
+
+    @Value("${quiz.scoreboard-interval-ms:3000}")
+    private long scoreboardIntervalMs;
+
+    @Value("${quiz.tick-ms:500}")
+    private long tickMs;
+
+    @Value("${quiz.threads:2}")
+    private int threads;
+
+    private ScheduledExecutorService scheduler;
+
+    private final Map<Long, Quiz> quizzes = new ConcurrentHashMap<>();
+    private final AtomicInteger quizIds = new AtomicInteger();
+
+    @PostConstruct
+    void init() {
+        AtomicInteger threadIds = new AtomicInteger();
+        scheduler = Executors.newScheduledThreadPool(threads, r -> {
+            Thread thread = new Thread(r, "group-quiz-" + threadIds.incrementAndGet());
+            thread.setDaemon(true);
+            return thread;
+        });
+    }
+
+    @PreDestroy
+    void shutdown() {
+        scheduler.shutdownNow();
+    }
+
+    public boolean isRunning(Long chatId) {
+        return quizzes.containsKey(chatId);
+    }
+
+    /**
+     * Starts a quiz in {@code chatId} on the words of {@code lang}/{@code level}, with texts in
+     * {@code nativeLang}; does nothing if one is already running there.
+     */
+    public void start(Long chatId, String nativeLang, String lang, String level) {
+        List<Word> words = new ArrayList<>(vocabularyService.getVocabulary().wordsFor(lang, level));
+        boolean ru = !"zh".equals(nativeLang);
+        if (words.size() < OPTIONS) {
+            send(chatId, ru ? "😔 Нет слов для викторины." : "😔 没有可用于竞赛的单词。", null);
+            return;
+        }
+        Collections.shuffle(words);
+        Quiz quiz = new Quiz(quizIds.incrementAndGet(), chatId, ru, words.subList(0, Math.min(cardCount, words.size())));
+        if (quizzes.putIfAbsent(chatId, quiz) != null) {
+            return;
+        }
+        quiz.scoreboardMessageId = send(chatId, scoreboardText(quiz, false), null);
+        quiz.nextCardAt = System.currentTimeMillis();
+        quiz.ticker = scheduler.scheduleWithFixedDelay(() -> tick(quiz), tickMs, tickMs, TimeUnit.MILLISECONDS);
+    }
+
+    public void stop(Long chatId) {
+        Quiz quiz = quizzes.get(chatId);
+        if (quiz != null) {
+            quiz.stopped = true;
+        }
+    }
+
+    /**
+     * Handles a {@code gq:<quiz>:<card>:<word>} button press; always answers the callback query.
+     */
+    public void handleAnswer(Long chatId, String callbackQueryId, Long userId, String userName, String data) {
+        String[] parts = data.split(":");
+        Quiz quiz = quizzes.get(chatId);
+        Card card = quiz == null ? null : quiz.current;
+        if (card == null || quiz.id != Integer.parseInt(parts[1]) || card.index != Integer.parseInt(parts[2])) {
+            answerCallbackQuery(callbackQueryId, quiz != null && !quiz.ru ? "⌛ 这张卡片已经结束了" : "⌛ Эта карточка уже закрыта");
+            return;
+        }
+
+        Player player = quiz.players.computeIfAbsent(userId, id -> new Player(userName));
+        if (player.lastAttempt.getAndSet(card.index) == card.index) {
+            answerCallbackQuery(callbackQueryId, quiz.ru ? "Ты уже ответил на эту карточку" : "你已经回答过这张卡片了");
+            return;
+        }
+
+        boolean correct = card.word.getId().equals(Long.parseLong(parts[3]));
+        if (!correct) {
+            answerCallbackQuery(callbackQueryId, quiz.ru ? "❌ Неверно" : "❌ 错误");
+        } else if (!card.winner.compareAndSet(NO_WINNER, userId)) {
+            answerCallbackQuery(callbackQueryId, quiz.ru ? "✅ Верно, но кто-то успел раньше" : "✅ 正确，但有人更快");
+        } else {
+            player.score.incrementAndGet();
+            quiz.scoreboardDirty.set(true);
+            answerCallbackQuery(callbackQueryId, quiz.ru ? "🏆 Первый!" : "🏆 第一名！");
+            reveal(quiz, card, "✅ " + escape(userName));
+        }
+    }
+
+    private void tick(Quiz quiz) {
+        long now = System.currentTimeMillis();
+        try {
+            Card card = quiz.current;
+            if (card != null && (now >= card.deadline || quiz.stopped) && card.winner.compareAndSet(NO_WINNER, TIMED_OUT)) {
+                reveal(quiz, card, "⏰");
+            }
+            if (quiz.current == null && now >= quiz.nextCardAt) {
+                if (quiz.stopped || quiz.nextIndex >= quiz.words.size()) {
+                    finish(quiz);
+                    return;
+                }
+                postCard(quiz, now);
+            }
+            if (quiz.scoreboardDirty.get() && now - quiz.scoreboardEditedAt >= scoreboardIntervalMs) {
+                quiz.scoreboardDirty.set(false);
+                quiz.scoreboardEditedAt = now;
+                edit(quiz.chatId, quiz.scoreboardMessageId, scoreboardText(quiz, false), null);
+            }
+        } catch (Exception e) {
+            log.warn("Quiz in chat {} failed, stopping it", quiz.chatId, e);
+            quizzes.remove(quiz.chatId);
+            quiz.ticker.cancel(false);
+        }
+    }
+
+    private void postCard(Quiz quiz, long now) {
+        Word word = quiz.words.get(quiz.nextIndex);
+        List<Word> options = new ArrayList<>(vocabularyService.getVocabulary().pickDistractors(word, OPTIONS - 1));
+        for (int i = 0; options.size() < OPTIONS - 1 && i < quiz.words.size(); i++) {
+            Word other = quiz.words.get(i);
+            if (other != word && !other.getTranslation().equals(word.getTranslation()) && !options.contains(other)) {
+                options.add(other);
+            }
+        }
+        options.add(word);
+        Collections.shuffle(options);
+
+        int index = quiz.nextIndex++;
+        List<List<InlineKeyboardButton>> rows = new ArrayList<>();
+        for (Word option : options) {
+            InlineKeyboardButton button = new InlineKeyboardButton();
+            String label = option.getTranslation();
+            button.setText(label.length() <= OPTION_LABEL_LIMIT ? label : label.substring(0, OPTION_LABEL_LIMIT - 1) + "…");
+            button.setCallbackData("gq:" + quiz.id + ":" + index + ":" + option.getId());
+            rows.add(List.of(button));
+        }
+        InlineKeyboardMarkup keyboard = new InlineKeyboardMarkup();
+        keyboard.setKeyboard(rows);
+
+        Card card = new Card(index, word, now + cardTimeoutMs);
+        card.messageId = send(quiz.chatId, cardText(quiz, card, null), keyboard);
+        quiz.current = card;
+    }
+
+    /**
+     * Called exactly once per card, by whoever resolved its winner.
+     */
+    private void reveal(Quiz quiz, Card card, String verdict) {
+        quiz.nextCardAt = System.currentTimeMillis() + cardPauseMs;
+        quiz.current = null;
+        if (card.messageId != null) {
+            edit(quiz.chatId, card.messageId, cardText(quiz, card, verdict), new InlineKeyboardMarkup(List.of()));
+        }
+    }
+
+    private void finish(Quiz quiz) {
+        quizzes.remove(quiz.chatId);
+        quiz.ticker.cancel(false);
+        edit(quiz.chatId, quiz.scoreboardMessageId, scoreboardText(quiz, true), null);
+        List<Map.Entry<Long, Player>> ranking = ranking(quiz);
+        String text;
+        if (ranking.isEmpty()) {
+            text = quiz.ru ? "🏁 Викторина окончена, никто не набрал очков." : "🏁 竞赛结束，没有人得分。";
+        } else {
+            String winner = escape(ranking.get(0).getValue().name);
+            text = quiz.ru ? "🏁 Викторина окончена! Победитель: <b>" + winner + "</b>"
+                    : "🏁 竞赛结束！获胜者：<b>" + winner + "</b>";
+        }
+        send(quiz.chatId, text, null);
+    }
+
+    private String cardText(Quiz quiz, Card card, String verdict) {
+        Word word = card.word;
+        StringBuilder text = new StringBuilder();
+        text.append(quiz.ru ? "🔤 <b>Выбери перевод</b> (" : "🔤 <b>选择翻译</b> (")
+                .append(card.index + 1).append('/').append(quiz.words.size()).append("):\n\n<b>")
+                .append(escape(word.getWord())).append("</b>");
+        if (word.getTranscription() != null && !word.getTranscription().isEmpty()) {
+            text.append(" (").append(escape(word.getTranscription())).append(')');
+        }
+        if (verdict != null) {
+            text.append("\n\n").append(verdict).append(" — ").append(escape(word.getTranslation()));
+        }
+        return text.toString();
+    }
+
+    private String scoreboardText(Quiz quiz, boolean last) {
+        StringBuilder text = new StringBuilder(quiz.ru
+                ? (last ? "🏆 <b>Итоги викторины</b>\n" : "🏆 <b>Викторина</b> — первый правильный ответ получает очко\n")
+                : (last ? "🏆 <b>竞赛结果</b>\n" : "🏆 <b>竞赛</b> — 第一个正确答案得一分\n"));
+        List<Map.Entry<Long, Player>> ranking = ranking(quiz);
+        for (int i = 0; i < Math.min(SCOREBOARD_SIZE, ranking.size()); i++) {
+            Player player = ranking.get(i).getValue();
+            text.append('\n').append(i + 1).append(". ").append(escape(player.name))
+                    .append(" — ").append(player.score.get());
+        }
+        return text.toString();
+    }
+
+    /**
+     * Telegram only knows the basic HTML entities, so everything else is left as UTF-8.
+     */
+    private static String escape(String text) {
+        return HtmlUtils.htmlEscape(text, "UTF-8");
+    }
+
+    private static List<Map.Entry<Long, Player>> ranking(Quiz quiz) {
+        List<Map.Entry<Long, Player>> ranking = new ArrayList<>();
+        for (Map.Entry<Long, Player> entry : quiz.players.entrySet()) {
+            if (entry.getValue().score.get() > 0) {
+                ranking.add(entry);
+            }
+        }
+        ranking.sort(Comparator.comparingInt((Map.Entry<Long, Player> e) -> e.getValue().score.get()).reversed()
+                .thenComparingLong(Map.Entry::getKey));
+        return ranking;
+    }
+
+    private Integer send(Long chatId, String text, InlineKeyboardMarkup keyboard) {
+        Map<String, Object> request = new HashMap<>();
+        request.put("chat_id", chatId);
+        request.put("text", text);
+        request.put("parse_mode", "HTML");
+        if (keyboard != null) {
+            request.put("reply_markup", keyboard);
+        }
+        try {
+            String response = telegramApiClient.call("sendMessage", request);
+            return objectMapper.readTree(response).path("result").path("message_id").asInt();
+        } catch (Exception e) {
+            log.warn("Failed to send quiz message to chat {}", chatId, e);
+            return null;
+        }
+    }
+
+    private void edit(Long chatId, Integer messageId, String text, InlineKeyboardMarkup keyboard) {
+        if (messageId == null) {
+            return;
+        }
+        Map<String, Object> request = new HashMap<>();
+        request.put("chat_id", chatId);
+        request.put("message_id", messageId);
+        request.put("text", text);
+        request.put("parse_mode", "HTML");
+        if (keyboard != null) {
+            request.put("reply_markup", keyboard);
+        }
+        try {
+            telegramApiClient.call("editMessageText", request);
+        } catch (Exception e) {
+            log.warn("Failed to edit quiz message in chat {}", chatId, e);
+        }
+    }
+
+    private void answerCallbackQuery(String callbackQueryId, String text) {
+        try {
+            telegramApiClient.call("answerCallbackQuery", Map.of("callback_query_id", callbackQueryId, "text", text));
+        } catch (Exception e) {
+            log.warn("Failed to answer callback query", e);
+        }
+    }
+
+    private static final class Quiz {
+        private final int id;
+        private final Long chatId;
+        private final boolean ru;
+        private final List<Word> words;
+        private final Map<Long, Player> players = new ConcurrentHashMap<>();
+        private final AtomicBoolean scoreboardDirty = new AtomicBoolean();
+        private volatile Card current;
+        private volatile long nextCardAt = Long.MAX_VALUE;
+        private volatile boolean stopped;
+        private volatile Integer scoreboardMessageId;
+        private volatile ScheduledFuture<?> ticker;
+        private int nextIndex;
+        private long scoreboardEditedAt;
+
+        Quiz(int id, Long chatId, boolean ru, List<Word> words) {
+            this.id = id;
+            this.chatId = chatId;
+            this.ru = ru;
+            this.words = List.copyOf(words);
+        }
+    }
+
+    private static final class Card {
+        private final int index;
+        private final Word word;
+        private final long deadline;
+        private final AtomicLong winner = new AtomicLong(NO_WINNER);
+        private volatile Integer messageId;
+
+        Card(int index, Word word, long deadline) {
+            this.index = index;
+            this.word = word;
+            this.deadline = deadline;
+        }
+    }
+
+    private static final class Player {
+        private final String name;
+        private final AtomicInteger score = new AtomicInteger();
+        private final AtomicInteger lastAttempt = new AtomicInteger(-1);
+
+        Player(String name) {
+            this.name = name;
+        }
+    }
+}
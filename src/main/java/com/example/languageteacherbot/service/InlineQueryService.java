@@ -0,0 +1,74 @@
+package com.example.languageteacherbot.service;
+
+import com.example.languageteacherbot.entity.Word;
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import jakarta.annotation.PostConstruct;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Service;
+
+import java.util.*;
+
+/**
+ * Builds {@code answerInlineQuery} result payloads from the in-memory vocabulary. Serialized
+ * payloads are kept in a bounded LRU keyed by vocabulary version and normalized query, so
+ * repeated keystrokes never reach the database or the search index twice.
+ */
+@Service
+public class InlineQueryService {
+
+    @Autowired
+    private VocabularyService vocabularyService;
+
+    @Autowired
+    private ObjectMapper objectMapper;
+
+    @Value("${inline-query.cache-size:2048}")
+    private int cacheSize;
+
+    @Value("${inline-query.result-limit:20}")
+    private int resultLimit;
+
+    private LruCache<String, String> payloads;
+
+    @PostConstruct
+    void init() {
+        payloads = new LruCache<>(cacheSize);
+    }
+
+    public String resultsPayload(String query) {
+        Vocabulary vocabulary = vocabularyService.getVocabulary();
+        String normalized = WordSearchIndex.normalize(query);
+        if (normalized.isEmpty()) {
+            return "[]";
+        }
+        return payloads.computeIfAbsent(vocabulary.getVersion() + "|" + normalized,
+                key -> serialize(vocabulary.searchAllLanguages(normalized, resultLimit)));
+    }
+
+    private String serialize(List<WordSearchIndex.Match> matches) {
+        List<Map<String, Object>> results = new ArrayList<>(matches.size());
+        for (WordSearchIndex.Match match : matches) {
+            Word w = match.word();
+            boolean hasTranscription = w.getTranscription() != null && !w.getTranscription().isEmpty();
+            String title = hasTranscription ? w.getWord() + " (" + w.getTranscription() + ")" : w.getWord();
+
+            Map<String, Object> content = new HashMap<>();
+            content.put("message_text", "📘 " + title + "\n" + w.getTranslation() + "\n\n" + w.getLang().toUpperCase() + " · " + w.getLevel());
+
+            Map<String, Object> result = new HashMap<>();
+            result.put("type", "article");
+            result.put("id", String.valueOf(w.getId()));
+            result.put("title", title);
+            result.put("description", w.getTranslation());
+            result.put("input_message_content", content);
+            results.add(result);
+        }
+        try {
+            return objectMapper.writeValueAsString(results);
+        } catch (JsonProcessingException e) {
+            throw new IllegalStateException("Cannot serialize inline query results", e);
+        }
+    }
+}
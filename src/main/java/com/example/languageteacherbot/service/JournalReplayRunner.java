@@ -0,0 +1,114 @@
+package com.example.languageteacherbot.service;
+
+import com.example.languageteacherbot.controller.FakeBotApiController;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.ApplicationArguments;
+import org.springframework.boot.ApplicationRunner;
+import org.springframework.boot.SpringApplication;
+import org.springframework.context.ConfigurableApplicationContext;
+import org.springframework.context.annotation.Profile;
+import org.springframework.stereotype.Component;
+
+import java.nio.file.Paths;
+import java.util.Arrays;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Feeds a recorded update journal back through {@link TelegramService#processUpdate} once the
+ * application has started with the {@code replay} profile, where Bot API calls go to
+ * {@link FakeBotApiController}. {@code journal.replay.speed} scales the original gaps between
+ * updates (1 keeps them, 10 is ten times faster, 0 replays back to back). The run ends with a
+ * latency summary, after which the application exits.
+ */
+@Component
+@Profile("replay")
+public class JournalReplayRunner implements ApplicationRunner {
+
+    private static final Logger log = LoggerFactory.getLogger(JournalReplayRunner.class);
+
+    @Autowired
+    private TelegramService telegramService;
+
+    @Autowired
+    private UpdateDeduplicator updateDeduplicator;
+
+    @Autowired
+    private FakeBotApiController fakeBotApi;
+
+    @Autowired
+    private ObjectMapper objectMapper;
+
+    @Autowired
+    private ConfigurableApplicationContext context;
+
+    @Value("${journal.replay.directory:${journal.directory:journal}}")
+    private String directory;
+
+    @Value("${journal.replay.speed:1.0}")
+    private double speed;
+
+    @Value("${journal.replay.exit:true}")
+    private boolean exitWhenDone;
+
+    private long[] latencies = new long[1024];
+    private int count;
+    private long firstReceivedAt;
+    private long start;
+
+    @Override
+    public void run(ApplicationArguments args) throws Exception {
+        log.info("Replaying update journal from {} at speed {}", directory, speed);
+        start = System.nanoTime();
+        UpdateJournal.read(Paths.get(directory), objectMapper, this::replay);
+
+        long elapsedMs = TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - start);
+        long[] sorted = Arrays.copyOf(latencies, count);
+        Arrays.sort(sorted);
+        if (sorted.length == 0) {
+            log.info("Update journal in {} is empty", directory);
+        } else {
+            log.info("Replayed {} updates in {} ms: p50 {} ms, p99 {} ms, max {} ms; Bot API calls {}",
+                    sorted.length, elapsedMs, percentileMs(sorted, 0.50), percentileMs(sorted, 0.99),
+                    percentileMs(sorted, 1.0), fakeBotApi.getCalls());
+        }
+        if (exitWhenDone) {
+            System.exit(SpringApplication.exit(context));
+        }
+    }
+
+    private void replay(UpdateJournal.Entry entry) {
+        // The journal records redeliveries too; the webhook path drops them before dispatch.
+        if (entry.update().get("update_id") instanceof Number updateId && !updateDeduplicator.markSeen(updateId.longValue())) {
+            return;
+        }
+        if (count == 0) {
+            firstReceivedAt = entry.receivedAt();
+        }
+        if (speed > 0) {
+            long dueNanos = (long) (TimeUnit.MILLISECONDS.toNanos(entry.receivedAt() - firstReceivedAt) / speed);
+            long waitNanos = dueNanos - (System.nanoTime() - start);
+            if (waitNanos > 0) {
+                try {
+                    TimeUnit.NANOSECONDS.sleep(waitNanos);
+                } catch (InterruptedException e) {
+                    Thread.currentThread().interrupt();
+                }
+            }
+        }
+        long begin = System.nanoTime();
+        telegramService.processUpdate(entry.update());
+        if (count == latencies.length) {
+            latencies = Arrays.copyOf(latencies, count * 2);
+        }
+        latencies[count++] = System.nanoTime() - begin;
+    }
+
+    private static double percentileMs(long[] sorted, double percentile) {
+        int index = Math.min(sorted.length - 1, (int) Math.ceil(percentile * sorted.length) - 1);
+        return Math.round(sorted[Math.max(0, index)] / 10_000.0) / 100.0;
+    }
+}
@@ -0,0 +1,105 @@
+package com.example.languageteacherbot.service;
+
+import java.util.*;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentSkipListSet;
+
+/**
+ * Scores of one leaderboard. Entries are kept in a skip list ordered by score, so the top of the
+ * board is read without sorting, and a Fenwick tree counts players per score, so a player's rank is
+ * a prefix sum. Writers serialize on the board; top-N reads go straight to the skip list.
+ */
+public class Leaderboard {
+
+    public record Ranked(long chatId, int score) {
+    }
+
+    private static final Comparator<Ranked> ORDER = Comparator.comparingInt(Ranked::score).reversed()
+            .thenComparingLong(Ranked::chatId);
+
+    private final ConcurrentSkipListSet<Ranked> ranking = new ConcurrentSkipListSet<>(ORDER);
+    private final Map<Long, Integer> scores = new ConcurrentHashMap<>();
+    private long[] counts = new long[64];
+    private int players;
+
+    public synchronized void add(long chatId, int points) {
+        set(chatId, scores.getOrDefault(chatId, 0) + points);
+    }
+
+    public synchronized void set(long chatId, int score) {
+        Integer previous = scores.put(chatId, score);
+        if (previous != null) {
+            ranking.remove(new Ranked(chatId, previous));
+            update(previous, -1);
+        } else {
+            players++;
+        }
+        ranking.add(new Ranked(chatId, score));
+        update(score, 1);
+    }
+
+    public List<Ranked> top(int limit) {
+        List<Ranked> result = new ArrayList<>(limit);
+        for (Ranked ranked : ranking) {
+            if (result.size() == limit) break;
+            result.add(ranked);
+        }
+        return result;
+    }
+
+    public int score(long chatId) {
+        return scores.getOrDefault(chatId, 0);
+    }
+
+    /**
+     * 1-based rank among players with a score, players with equal scores share a rank; 0 if the
+     * player has no score on this board.
+     */
+    public synchronized int rank(long chatId) {
+        Integer score = scores.get(chatId);
+        if (score == null) {
+            return 0;
+        }
+        return (int) (players - prefixSum(score)) + 1;
+    }
+
+    public synchronized int size() {
+        return players;
+    }
+
+    private void update(int score, long delta) {
+        int index = score + 1;
+        if (index >= counts.length) {
+            grow(index);
+        }
+        for (int i = index; i < counts.length; i += i & -i) {
+            counts[i] += delta;
+        }
+    }
+
+    private long prefixSum(int score) {
+        return prefix(Math.min(score + 1, counts.length - 1));
+    }
+
+    private long prefix(int index) {
+        long sum = 0;
+        for (int i = index; i > 0; i -= i & -i) {
+            sum += counts[i];
+        }
+        return sum;
+    }
+
+    private void grow(int index) {
+        int length = counts.length;
+        while (length <= index) {
+            length <<= 1;
+        }
+        long[] grown = Arrays.copyOf(counts, length);
+        long total = prefix(counts.length - 1);
+        for (int i = counts.length; i < length; i++) {
+            int from = i - (i & -i);
+            grown[i] = from < counts.length ? total - prefix(from) : 0;
+        }
+        counts = grown;
+    }
+}
@@ -0,0 +1,140 @@
+package com.example.languageteacherbot.service;
+
+import com.example.languageteacherbot.entity.LeaderboardScore;
+import com.example.languageteacherbot.entity.Word;
+import com.example.languageteacherbot.repository.LeaderboardScoreRepository;
+import jakarta.annotation.PreDestroy;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.time.temporal.IsoFields;
+import java.util.*;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * Weekly and all-time leaderboards of correct flashcard answers, one per target language and level.
+ * Boards live in memory and changed scores are written to {@code leaderboard_scores} periodically.
+ * Stored scores are loaded in the background once the application is ready, or on first use if
+ * that comes earlier, so refreshing the context never touches the database.
+ */
+@Service
+public class LeaderboardService {
+
+    private static final Logger log = LoggerFactory.getLogger(LeaderboardService.class);
+    public static final String ALL_TIME = "all";
+
+    @Autowired
+    private LeaderboardScoreRepository leaderboardScoreRepository;
+
+    private final Map<BoardKey, Leaderboard> boards = new ConcurrentHashMap<>();
+    private final Set<DirtyScore> dirty = ConcurrentHashMap.newKeySet();
+    private volatile boolean loaded;
+
+    private record BoardKey(String period, String board) {
+    }
+
+    private record DirtyScore(BoardKey key, long chatId) {
+    }
+
+    @EventListener(ApplicationReadyEvent.class)
+    public void warmUp() {
+        Thread thread = new Thread(() -> {
+            try {
+                ensureLoaded();
+            } catch (Exception e) {
+                log.warn("Leaderboard warm-up failed, scores will be loaded on first use", e);
+            }
+        }, "leaderboard-warmup");
+        thread.setDaemon(true);
+        thread.start();
+    }
+
+    private void ensureLoaded() {
+        if (!loaded) {
+            synchronized (this) {
+                if (!loaded) {
+                    load();
+                    loaded = true;
+                }
+            }
+        }
+    }
+
+    private void load() {
+        long start = System.currentTimeMillis();
+        List<LeaderboardScore> scores = leaderboardScoreRepository.findByPeriodIn(List.of(ALL_TIME, currentWeek()));
+        for (LeaderboardScore score : scores) {
+            board(score.getPeriod(), score.getBoard()).set(score.getChatId(), score.getScore());
+        }
+        log.info("Loaded {} leaderboard scores into {} boards in {} ms", scores.size(), boards.size(),
+                System.currentTimeMillis() - start);
+    }
+
+    public void recordCorrect(Long chatId, Word word) {
+        ensureLoaded();
+        String board = UserStatsService.levelKey(word.getLang(), word.getLevel());
+        for (String period : List.of(ALL_TIME, currentWeek())) {
+            board(period, board).add(chatId, 1);
+            dirty.add(new DirtyScore(new BoardKey(period, board), chatId));
+        }
+    }
+
+    public Leaderboard weekly(String lang, String level) {
+        ensureLoaded();
+        return board(currentWeek(), UserStatsService.levelKey(lang, level));
+    }
+
+    public Leaderboard allTime(String lang, String level) {
+        ensureLoaded();
+        return board(ALL_TIME, UserStatsService.levelKey(lang, level));
+    }
+
+    @Scheduled(fixedDelayString = "${leaderboard.snapshot-interval-ms:60000}")
+    public void snapshot() {
+        LocalDateTime now = LocalDateTime.now();
+        List<LeaderboardScore> batch = new ArrayList<>();
+        for (Iterator<DirtyScore> it = dirty.iterator(); it.hasNext(); ) {
+            DirtyScore score = it.next();
+            it.remove();
+            Leaderboard board = boards.get(score.key());
+            if (board != null) {
+                batch.add(new LeaderboardScore(score.key().period(), score.key().board(), score.chatId(),
+                        board.score(score.chatId()), now));
+            }
+        }
+        if (!batch.isEmpty()) {
+            try {
+                leaderboardScoreRepository.saveAll(batch);
+            } catch (Exception e) {
+                log.warn("Failed to snapshot {} leaderboard scores", batch.size(), e);
+                batch.forEach(s -> dirty.add(new DirtyScore(new BoardKey(s.getPeriod(), s.getBoard()), s.getChatId())));
+                return;
+            }
+        }
+
+        String week = currentWeek();
+        boards.keySet().removeIf(key -> !key.period().equals(ALL_TIME) && !key.period().equals(week)
+                && dirty.stream().noneMatch(d -> d.key().equals(key)));
+    }
+
+    @PreDestroy
+    void shutdown() {
+        snapshot();
+    }
+
+    private Leaderboard board(String period, String board) {
+        return boards.computeIfAbsent(new BoardKey(period, board), key -> new Leaderboard());
+    }
+
+    static String currentWeek() {
+        LocalDate today = LocalDate.now();
+        return today.get(IsoFields.WEEK_BASED_YEAR) + "-W" + String.format("%02d", today.get(IsoFields.WEEK_OF_WEEK_BASED_YEAR));
+    }
+}
@@ -0,0 +1,102 @@
+package com.example.languageteacherbot.service;
+
+import com.example.languageteacherbot.entity.LearningEvent;
+import com.example.languageteacherbot.repository.LearningEventRepository;
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.atomic.AtomicLong;
+
+@Service
+public class LearningEventService {
+
+    private static final Logger log = LoggerFactory.getLogger(LearningEventService.class);
+
+    @Autowired
+    private LearningEventRepository learningEventRepository;
+
+    @Value("${learning-events.buffer-capacity:8192}")
+    private int bufferCapacity;
+
+    @Value("${learning-events.batch-size:500}")
+    private int batchSize;
+
+    private MpscRingBuffer<LearningEvent> buffer;
+    private final AtomicLong droppedEvents = new AtomicLong();
+
+    @PostConstruct
+    void init() {
+        buffer = new MpscRingBuffer<>(bufferCapacity);
+    }
+
+    public void recordShown(Long chatId, String gameType, Long wordId) {
+        LearningEvent event = newEvent(chatId, LearningEvent.Type.SHOWN, gameType);
+        event.setWordId(wordId);
+        publish(event);
+    }
+
+    public void recordAnswered(Long chatId, String gameType, Long wordId, LearningEvent.Outcome outcome, long latencyMs) {
+        LearningEvent event = newEvent(chatId, LearningEvent.Type.ANSWERED, gameType);
+        event.setWordId(wordId);
+        event.setOutcome(outcome);
+        event.setLatencyMs(latencyMs);
+        publish(event);
+    }
+
+    public void recordGameFinished(Long chatId, String gameType, int correctCount, int totalCount, long durationMs) {
+        LearningEvent event = newEvent(chatId, LearningEvent.Type.GAME_FINISHED, gameType);
+        event.setCorrectCount(correctCount);
+        event.setTotalCount(totalCount);
+        event.setLatencyMs(durationMs);
+        publish(event);
+    }
+
+    public long getDroppedEvents() {
+        return droppedEvents.get();
+    }
+
+    @Scheduled(fixedDelayString = "${learning-events.flush-interval-ms:2000}")
+    public void flush() {
+        List<LearningEvent> batch = new ArrayList<>(batchSize);
+        while (buffer.drainTo(batch, batchSize) > 0) {
+            try {
+                learningEventRepository.insertAll(batch);
+            } catch (Exception e) {
+                log.warn("Failed to persist {} learning events", batch.size(), e);
+            }
+            batch.clear();
+        }
+    }
+
+    @PreDestroy
+    void shutdown() {
+        flush();
+    }
+
+    private LearningEvent newEvent(Long chatId, LearningEvent.Type type, String gameType) {
+        LearningEvent event = new LearningEvent();
+        event.setOccurredAt(LocalDateTime.now());
+        event.setChatId(chatId);
+        event.setType(type);
+        event.setGameType(gameType);
+        return event;
+    }
+
+    private void publish(LearningEvent event) {
+        if (!buffer.offer(event)) {
+            long dropped = droppedEvents.incrementAndGet();
+            if (dropped % 1000 == 1) {
+                log.warn("Learning event buffer full, {} events dropped so far", dropped);
+            }
+        }
+    }
+}
@@ -0,0 +1,250 @@
+package com.example.languageteacherbot.service;
+
+import com.example.languageteacherbot.entity.Word;
+import com.example.languageteacherbot.entity.WordMedia;
+import com.example.languageteacherbot.repository.WordMediaRepository;
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import jakarta.annotation.PostConstruct;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.core.io.FileSystemResource;
+import org.springframework.stereotype.Service;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.time.LocalDateTime;
+import java.util.*;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.stream.Stream;
+
+/**
+ * Pronunciation audio and pictures for flashcards. Files are looked up as
+ * {@code <media.directory>/audio/<lang>/<word>.ogg|.mp3} and {@code .../images/<lang>/<word>.jpg|.png}.
+ * Each file is uploaded once; the {@code file_id} Telegram returns is stored in {@code word_media}
+ * and every later send references it instead of the bytes.
+ */
+@Service
+public class MediaService {
+
+    private static final Logger log = LoggerFactory.getLogger(MediaService.class);
+
+    @Autowired
+    private WordMediaRepository wordMediaRepository;
+
+    @Autowired
+    private TelegramApiClient telegramApiClient;
+
+    @Autowired
+    private VocabularyService vocabularyService;
+
+    @Autowired
+    private ObjectMapper objectMapper;
+
+    @Value("${media.enabled:true}")
+    private boolean enabled;
+
+    @Value("${media.directory:media}")
+    private String directory;
+
+    @Value("${media.warmup-chat-id:}")
+    private Long warmupChatId;
+
+    @Value("${media.warmup-interval-ms:1000}")
+    private long warmupIntervalMs;
+
+    private final Map<WordMedia.Key, WordMedia> registry = new ConcurrentHashMap<>();
+    private final Set<WordMedia.Key> uploading = ConcurrentHashMap.newKeySet();
+    private Map<String, Path> files = Map.of();
+
+    @PostConstruct
+    void init() {
+        if (!enabled) {
+            return;
+        }
+        for (WordMedia media : wordMediaRepository.findAll()) {
+            registry.put(new WordMedia.Key(media.getWordId(), media.getKind()), media);
+        }
+        files = scan(Paths.get(directory));
+        log.info("Media registry has {} file ids, {} local files under {}", registry.size(), files.size(), directory);
+    }
+
+    /**
+     * Sends the picture and pronunciation of {@code word} to the chat, if there are any.
+     */
+    public void attach(Long chatId, Word word) {
+        if (!enabled || word.getId() == null) {
+            return;
+        }
+        for (WordMedia.Kind kind : WordMedia.Kind.values()) {
+            WordMedia media = registry.get(new WordMedia.Key(word.getId(), kind));
+            try {
+                if (media != null) {
+                    sendByFileId(chatId, media);
+                } else {
+                    Path file = files.get(fileKey(kind, word.getLang(), word.getWord()));
+                    if (file != null) {
+                        sendFile(chatId, word.getId(), kind, file);
+                    }
+                }
+            } catch (Exception e) {
+                log.warn("Failed to send {} for word {}", kind, word.getId(), e);
+            }
+        }
+    }
+
+    @EventListener(ApplicationReadyEvent.class)
+    public void warmUp() {
+        if (!enabled || warmupChatId == null || files.isEmpty()) {
+            return;
+        }
+        Thread thread = new Thread(this::uploadMissing, "media-warmup");
+        thread.setDaemon(true);
+        thread.start();
+    }
+
+    private void uploadMissing() {
+        int uploaded = 0;
+        for (Word word : vocabularyService.getVocabulary().getWords()) {
+            for (WordMedia.Kind kind : WordMedia.Kind.values()) {
+                Path file = files.get(fileKey(kind, word.getLang(), word.getWord()));
+                if (file == null || registry.containsKey(new WordMedia.Key(word.getId(), kind))) {
+                    continue;
+                }
+                try {
+                    if (upload(warmupChatId, word.getId(), kind, file)) {
+                        uploaded++;
+                    }
+                    Thread.sleep(warmupIntervalMs);
+                } catch (InterruptedException e) {
+                    Thread.currentThread().interrupt();
+                    return;
+                } catch (Exception e) {
+                    log.warn("Warm-up upload of {} failed", file, e);
+                }
+            }
+        }
+        log.info("Media warm-up uploaded {} files", uploaded);
+    }
+
+    /**
+     * Warm-up upload: skipped if the file already has a file_id or is being uploaded right now.
+     */
+    private boolean upload(Long chatId, Long wordId, WordMedia.Kind kind, Path file) throws IOException {
+        WordMedia.Key key = new WordMedia.Key(wordId, kind);
+        if (!uploading.add(key)) {
+            return false;
+        }
+        try {
+            if (registry.containsKey(key)) {
+                return false;
+            }
+            return uploadBytes(chatId, wordId, kind, file, true);
+        } finally {
+            uploading.remove(key);
+        }
+    }
+
+    /**
+     * Sends a file to a player. The file_id may have landed since {@link #attach} looked, and then
+     * it is used; if another chat or the warm-up is uploading the same file, the bytes are sent
+     * anyway rather than leaving the card without media, and only that other upload registers
+     * its file_id.
+     */
+    private void sendFile(Long chatId, Long wordId, WordMedia.Kind kind, Path file) throws IOException {
+        WordMedia.Key key = new WordMedia.Key(wordId, kind);
+        boolean owner = uploading.add(key);
+        try {
+            WordMedia media = registry.get(key);
+            if (media != null) {
+                sendByFileId(chatId, media);
+            } else {
+                uploadBytes(chatId, wordId, kind, file, owner);
+            }
+        } finally {
+            if (owner) {
+                uploading.remove(key);
+            }
+        }
+    }
+
+    private boolean uploadBytes(Long chatId, Long wordId, WordMedia.Kind kind, Path file, boolean register) throws IOException {
+        String type = telegramType(kind, file);
+        String response = telegramApiClient.upload(method(type), Map.of("chat_id", chatId), type,
+                new FileSystemResource(file));
+        if (!register) {
+            return true;
+        }
+        JsonNode result = objectMapper.readTree(response).path("result");
+        JsonNode sent = type.equals("photo") ? result.path("photo").path(result.path("photo").size() - 1) : result.path(type);
+        String fileId = sent.path("file_id").asText(null);
+        if (fileId == null) {
+            log.warn("No file_id in response for {}", file);
+            return false;
+        }
+
+        WordMedia media = new WordMedia(wordId, kind, type, fileId, LocalDateTime.now());
+        wordMediaRepository.save(media);
+        registry.put(new WordMedia.Key(wordId, kind), media);
+        return true;
+    }
+
+    private void sendByFileId(Long chatId, WordMedia media) {
+        Map<String, Object> request = new HashMap<>();
+        request.put("chat_id", chatId);
+        request.put(media.getTelegramType(), media.getFileId());
+        telegramApiClient.call(method(media.getTelegramType()), request);
+    }
+
+    private static String telegramType(WordMedia.Kind kind, Path file) {
+        if (kind == WordMedia.Kind.IMAGE) {
+            return "photo";
+        }
+        return file.getFileName().toString().endsWith(".ogg") ? "voice" : "audio";
+    }
+
+    private static String method(String telegramType) {
+        return switch (telegramType) {
+            case "photo" -> "sendPhoto";
+            case "voice" -> "sendVoice";
+            default -> "sendAudio";
+        };
+    }
+
+    private static Map<String, Path> scan(Path root) {
+        Map<String, Path> result = new HashMap<>();
+        scanKind(root.resolve("images"), WordMedia.Kind.IMAGE, Set.of("jpg", "jpeg", "png"), result);
+        scanKind(root.resolve("audio"), WordMedia.Kind.AUDIO, Set.of("ogg", "mp3", "m4a"), result);
+        return Map.copyOf(result);
+    }
+
+    private static void scanKind(Path dir, WordMedia.Kind kind, Set<String> extensions, Map<String, Path> result) {
+        if (!Files.isDirectory(dir)) {
+            return;
+        }
+        try (Stream<Path> paths = Files.walk(dir, 2)) {
+            paths.filter(Files::isRegularFile).forEach(path -> {
+                String name = path.getFileName().toString();
+                int dot = name.lastIndexOf('.');
+                if (dot <= 0 || !extensions.contains(name.substring(dot + 1).toLowerCase(Locale.ROOT))
+                        || path.getParent().equals(dir)) {
+                    return;
+                }
+                String lang = path.getParent().getFileName().toString();
+                result.putIfAbsent(fileKey(kind, lang, name.substring(0, dot)), path);
+            });
+        } catch (IOException e) {
+            log.warn("Failed to scan media directory {}", dir, e);
+        }
+    }
+
+    private static String fileKey(WordMedia.Kind kind, String lang, String word) {
+        return kind + "/" + lang + "/" + word;
+    }
+}
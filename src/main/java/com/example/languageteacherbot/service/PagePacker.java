@@ -0,0 +1,81 @@
+package com.example.languageteacherbot.service;
+
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import java.util.Arrays;
+import java.util.List;
+import java.util.regex.Pattern;
+
+/**
+ * Splits a list of rendered entries into pages that each fit into one Telegram message.
+ * Lengths are measured in UTF-16 code units (what {@link String#length()} returns and what
+ * Telegram counts) on the already escaped text. Pages are filled greedily, which for a fixed
+ * entry order gives the smallest possible number of pages.
+ */
+@Component
+public class PagePacker {
+
+    public static final int TELEGRAM_TEXT_LIMIT = 4096;
+
+    private static final Pattern MARKDOWN_SPECIAL = Pattern.compile("([_*`\\[])");
+
+    @Value("${paging.text-limit:" + TELEGRAM_TEXT_LIMIT + "}")
+    private int textLimit;
+
+    @Value("${paging.max-entries-per-page:0}")
+    private int maxEntriesPerPage;
+
+    /**
+     * Returns page start offsets into {@code entries}, followed by {@code entries.size()} as the
+     * end of the last page. {@code headerLength} must cover the longest header any page can get.
+     */
+    public int[] boundaries(List<String> entries, int headerLength) {
+        int budget = Math.max(1, textLimit - headerLength);
+        int[] starts = new int[entries.size() + 1];
+        int pages = 0;
+        int used = 0;
+        int onPage = 0;
+        for (int i = 0; i < entries.size(); i++) {
+            int length = Math.min(entries.get(i).length(), budget);
+            boolean full = onPage > 0 && (used + length > budget || (maxEntriesPerPage > 0 && onPage == maxEntriesPerPage));
+            if (onPage == 0 || full) {
+                starts[pages++] = i;
+                used = 0;
+                onPage = 0;
+            }
+            used += length;
+            onPage++;
+        }
+        starts[pages] = entries.size();
+        return Arrays.copyOf(starts, pages + 1);
+    }
+
+    public int pageCount(int[] boundaries) {
+        return boundaries.length - 1;
+    }
+
+    /**
+     * Cuts an entry that would not fit on a page even on its own. The cut never splits a
+     * surrogate pair or an escape added by {@link #escapeMarkdown}, which would otherwise leave a
+     * stray backslash in front of the ellipsis.
+     */
+    public String fit(String entry, int headerLength) {
+        int budget = Math.max(1, textLimit - headerLength);
+        if (entry.length() <= budget) {
+            return entry;
+        }
+        int end = budget - 2;
+        if (end > 0 && Character.isHighSurrogate(entry.charAt(end - 1))) {
+            end--;
+        }
+        if (end > 0 && entry.charAt(end - 1) == '\\' && "_*`[".indexOf(entry.charAt(end)) >= 0) {
+            end--;
+        }
+        return entry.substring(0, Math.max(0, end)) + "…\n";
+    }
+
+    public static String escapeMarkdown(String text) {
+        return text == null ? "" : MARKDOWN_SPECIAL.matcher(text).replaceAll("\\\\$1");
+    }
+}
@@ -0,0 +1,194 @@
+package com.example.languageteacherbot.service;
+
+import com.example.languageteacherbot.entity.Word;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.event.EventListener;
+import org.springframework.core.io.Resource;
+import org.springframework.core.io.ResourceLoader;
+import org.springframework.stereotype.Service;
+
+import java.io.BufferedReader;
+import java.io.IOException;
+import java.io.InputStreamReader;
+import java.nio.charset.StandardCharsets;
+import java.util.*;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.regex.Pattern;
+
+/**
+ * Example sentences for the sentence game. Each sentence lists the vocabulary words it is built
+ * from; its level is the highest level among those words, and it is indexed under that level and
+ * every level above it, so picking a sentence for a user is a single list lookup.
+ */
+@Service
+public class SentenceCorpus {
+
+    private static final Logger log = LoggerFactory.getLogger(SentenceCorpus.class);
+    private static final List<String> LEVELS = List.of("A1", "A2", "B1", "B2", "C1", "C2");
+    private static final Pattern NOT_LETTERS = Pattern.compile("[\\p{P}\\p{S}\\s]+");
+
+    @Autowired
+    private VocabularyService vocabularyService;
+
+    @Autowired
+    private ResourceLoader resourceLoader;
+
+    @Value("${sentence-corpus.location:classpath:sentences.csv}")
+    private String location;
+
+    private volatile List<Sentence> sentences;
+    private volatile Index index;
+
+    public record Sentence(String text, List<String> tokens, List<String> words, String translation, String lang) {
+    }
+
+    private record Index(long vocabularyVersion, Map<String, List<Sentence>> byLangAndLevel) {
+    }
+
+    public Optional<Sentence> randomSentence(String lang, String level) {
+        List<Sentence> candidates = index().byLangAndLevel().getOrDefault(lang + ":" + level, List.of());
+        if (candidates.isEmpty()) {
+            return Optional.empty();
+        }
+        return Optional.of(candidates.get(ThreadLocalRandom.current().nextInt(candidates.size())));
+    }
+
+    public List<String> shuffledTokens(Sentence sentence) {
+        List<String> tokens = new ArrayList<>(sentence.tokens());
+        if (new HashSet<>(tokens).size() > 1) {
+            do {
+                Collections.shuffle(tokens);
+            } while (tokens.equals(sentence.tokens()));
+        }
+        return tokens;
+    }
+
+    /**
+     * For Chinese the answer is segmented with the sentence's own tokens (longest match first) and
+     * the token order is compared; for Russian words are compared ignoring case, ё and punctuation.
+     */
+    public boolean isCorrect(Sentence sentence, String answer) {
+        if ("zh".equals(sentence.lang())) {
+            List<String> expected = sentence.tokens();
+            List<String> vocabulary = new ArrayList<>(new HashSet<>(expected));
+            vocabulary.sort(Comparator.comparingInt(String::length).reversed());
+
+            String text = NOT_LETTERS.matcher(answer).replaceAll("");
+            List<String> actual = new ArrayList<>();
+            int position = 0;
+            while (position < text.length()) {
+                String match = null;
+                for (String token : vocabulary) {
+                    if (text.startsWith(token, position)) {
+                        match = token;
+                        break;
+                    }
+                }
+                if (match == null) {
+                    return false;
+                }
+                actual.add(match);
+                position += match.length();
+            }
+            return actual.equals(expected);
+        }
+
+        List<String> expected = sentence.tokens().stream().map(SentenceCorpus::normalizeWord).toList();
+        List<String> actual = Arrays.stream(NOT_LETTERS.matcher(answer).replaceAll(" ").trim().split(" "))
+                .filter(token -> !token.isEmpty())
+                .map(SentenceCorpus::normalizeWord)
+                .toList();
+        return actual.equals(expected);
+    }
+
+    @EventListener
+    public void onVocabularyReloaded(VocabularyReloadedEvent event) {
+        index = null;
+    }
+
+    private Index index() {
+        Vocabulary vocabulary = vocabularyService.getVocabulary();
+        Index current = index;
+        if (current == null || current.vocabularyVersion() != vocabulary.getVersion()) {
+            current = buildIndex(vocabulary);
+            index = current;
+        }
+        return current;
+    }
+
+    private Index buildIndex(Vocabulary vocabulary) {
+        Map<String, String> wordLevels = new HashMap<>();
+        for (Word word : vocabulary.getWords()) {
+            wordLevels.merge(word.getLang() + ":" + normalizeWord(word.getWord()), word.getLevel(), SentenceCorpus::higherLevel);
+        }
+
+        Map<String, List<Sentence>> byLangAndLevel = new HashMap<>();
+        int skipped = 0;
+        for (Sentence sentence : sentences()) {
+            String sentenceLevel = null;
+            for (String word : sentence.words()) {
+                String level = wordLevels.get(sentence.lang() + ":" + normalizeWord(word));
+                if (level == null) {
+                    sentenceLevel = null;
+                    break;
+                }
+                sentenceLevel = sentenceLevel == null ? level : higherLevel(sentenceLevel, level);
+            }
+            if (sentenceLevel == null || !LEVELS.contains(sentenceLevel)) {
+                skipped++;
+                continue;
+            }
+            for (String level : LEVELS.subList(LEVELS.indexOf(sentenceLevel), LEVELS.size())) {
+                byLangAndLevel.computeIfAbsent(sentence.lang() + ":" + level, k -> new ArrayList<>()).add(sentence);
+            }
+        }
+        if (skipped > 0) {
+            log.info("{} sentences skipped because they use words missing from the vocabulary", skipped);
+        }
+        byLangAndLevel.replaceAll((k, list) -> List.copyOf(list));
+        return new Index(vocabulary.getVersion(), Map.copyOf(byLangAndLevel));
+    }
+
+    private List<Sentence> sentences() {
+        List<Sentence> loaded = sentences;
+        if (loaded == null) {
+            synchronized (this) {
+                loaded = sentences;
+                if (loaded == null) {
+                    loaded = load();
+                    sentences = loaded;
+                }
+            }
+        }
+        return loaded;
+    }
+
+    private List<Sentence> load() {
+        Resource resource = resourceLoader.getResource(location);
+        List<Sentence> result = new ArrayList<>();
+        try (BufferedReader reader = new BufferedReader(new InputStreamReader(resource.getInputStream(), StandardCharsets.UTF_8))) {
+            reader.readLine();
+            String line;
+            while ((line = reader.readLine()) != null) {
+                if (line.isBlank()) continue;
+                List<String> fields = CsvLineParser.parse(line, ',');
+                result.add(new Sentence(fields.get(0), List.of(fields.get(1).split(" ")),
+                        List.of(fields.get(2).split(" ")), fields.get(3), fields.get(4)));
+            }
+        } catch (IOException e) {
+            log.warn("Cannot read sentence corpus from {}", location, e);
+        }
+        return List.copyOf(result);
+    }
+
+    private static String higherLevel(String a, String b) {
+        return LEVELS.indexOf(a) >= LEVELS.indexOf(b) ? a : b;
+    }
+
+    private static String normalizeWord(String word) {
+        return word.toLowerCase(Locale.ROOT).replace('ё', 'е');
+    }
+}
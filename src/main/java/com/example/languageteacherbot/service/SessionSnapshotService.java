@@ -0,0 +1,100 @@
+package com.example.languageteacherbot.service;
+
+import com.example.languageteacherbot.entity.SessionSnapshot;
+import com.example.languageteacherbot.repository.SessionSnapshotRepository;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Service;
+
+import java.sql.Timestamp;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * Keeps the conversation sessions of a stopping instance in {@code session_snapshots} so the next
+ * one can pick them up. Only the chat ids are read at startup; a chat's snapshot is loaded and
+ * deleted the first time that chat sends an update.
+ */
+@Service
+public class SessionSnapshotService {
+
+    private static final Logger log = LoggerFactory.getLogger(SessionSnapshotService.class);
+
+    private static final String INSERT_SQL = "insert into session_snapshots (chat_id, data, saved_at) values (?, ?, ?)";
+
+    @Autowired
+    private SessionSnapshotRepository sessionSnapshotRepository;
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    @Value("${session-snapshot.max-age-hours:24}")
+    private long maxAgeHours;
+
+    @Value("${session-snapshot.batch-size:500}")
+    private int batchSize;
+
+    /** Chats with a stored snapshot, or {@code null} until they have been read. */
+    private volatile Set<Long> pending;
+
+    @EventListener(ApplicationReadyEvent.class)
+    public void loadPending() {
+        try {
+            int expired = sessionSnapshotRepository.deleteSavedBefore(LocalDateTime.now().minusHours(maxAgeHours));
+            Set<Long> chatIds = ConcurrentHashMap.newKeySet();
+            chatIds.addAll(sessionSnapshotRepository.findAllChatIds());
+            pending = chatIds;
+            if (!chatIds.isEmpty() || expired > 0) {
+                log.info("{} session snapshots to restore, {} expired ones deleted", chatIds.size(), expired);
+            }
+        } catch (Exception e) {
+            log.warn("Failed to read session snapshots, sessions will be restored on demand", e);
+        }
+    }
+
+    /**
+     * Removes and returns the snapshot of {@code chatId}, if the previous instance left one.
+     */
+    public Optional<byte[]> take(Long chatId) {
+        Set<Long> chatIds = pending;
+        if (chatIds != null && !chatIds.remove(chatId)) {
+            return Optional.empty();
+        }
+        Optional<SessionSnapshot> snapshot = sessionSnapshotRepository.findById(chatId);
+        if (snapshot.isEmpty()) {
+            return Optional.empty();
+        }
+        sessionSnapshotRepository.deleteById(chatId);
+        if (snapshot.get().getSavedAt().isBefore(LocalDateTime.now().minusHours(maxAgeHours))) {
+            return Optional.empty();
+        }
+        return Optional.of(snapshot.get().getData());
+    }
+
+    public void saveAll(Map<Long, byte[]> sessions) {
+        if (sessions.isEmpty()) {
+            return;
+        }
+        List<Long> chatIds = new ArrayList<>(sessions.keySet());
+        Timestamp savedAt = Timestamp.valueOf(LocalDateTime.now());
+        for (int from = 0; from < chatIds.size(); from += batchSize) {
+            sessionSnapshotRepository.deleteAllByIdInBatch(chatIds.subList(from, Math.min(chatIds.size(), from + batchSize)));
+        }
+        jdbcTemplate.batchUpdate(INSERT_SQL, chatIds, batchSize, (statement, chatId) -> {
+            statement.setLong(1, chatId);
+            statement.setBytes(2, sessions.get(chatId));
+            statement.setTimestamp(3, savedAt);
+        });
+        log.info("Saved {} session snapshots", chatIds.size());
+    }
+}
@@ -0,0 +1,33 @@
+package com.example.languageteacherbot.service;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.stereotype.Component;
+
+import java.lang.management.ManagementFactory;
+import java.util.concurrent.atomic.AtomicBoolean;
+
+@Component
+public class StartupTimer {
+
+    private static final Logger log = LoggerFactory.getLogger(StartupTimer.class);
+
+    private final AtomicBoolean firstUpdateHandled = new AtomicBoolean();
+
+    @EventListener(ApplicationReadyEvent.class)
+    public void onReady() {
+        log.info("Ready to accept updates {} ms after JVM start", sinceJvmStart());
+    }
+
+    public void updateHandled() {
+        if (!firstUpdateHandled.get() && firstUpdateHandled.compareAndSet(false, true)) {
+            log.info("First update handled {} ms after JVM start", sinceJvmStart());
+        }
+    }
+
+    private static long sinceJvmStart() {
+        return System.currentTimeMillis() - ManagementFactory.getRuntimeMXBean().getStartTime();
+    }
+}
@@ -0,0 +1,108 @@
+package com.example.languageteacherbot.service;
+
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.core.io.Resource;
+import org.springframework.http.HttpEntity;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpMethod;
+import org.springframework.http.MediaType;
+import org.springframework.http.StreamingHttpOutputMessage;
+import org.springframework.http.client.SimpleClientHttpRequestFactory;
+import org.springframework.stereotype.Component;
+import org.springframework.util.LinkedMultiValueMap;
+import org.springframework.util.MultiValueMap;
+import org.springframework.util.StreamUtils;
+import org.springframework.web.client.RequestCallback;
+import org.springframework.web.client.ResponseExtractor;
+import org.springframework.web.client.RestTemplate;
+
+import java.net.URI;
+import java.nio.charset.StandardCharsets;
+import java.util.Map;
+import java.util.UUID;
+
+@Component
+public class TelegramApiClient {
+
+    private final RestTemplate restTemplate;
+    private final String baseUrl;
+    private final String fileBaseUrl;
+    private final Tracer tracer;
+
+    public TelegramApiClient(Tracer tracer,
+                             @Value("${telegram.bot.token}") String botToken,
+                             @Value("${telegram.api-url:https://api.telegram.org/bot}") String apiUrl,
+                             @Value("${telegram.file-url:https://api.telegram.org/file/bot}") String fileUrl,
+                             @Value("${telegram.connect-timeout-ms:5000}") int connectTimeoutMs,
+                             @Value("${telegram.read-timeout-ms:15000}") int readTimeoutMs) {
+        this.tracer = tracer;
+        SimpleClientHttpRequestFactory requestFactory = new SimpleClientHttpRequestFactory();
+        requestFactory.setConnectTimeout(connectTimeoutMs);
+        requestFactory.setReadTimeout(readTimeoutMs);
+        this.restTemplate = new RestTemplate(requestFactory);
+        this.baseUrl = apiUrl + botToken + "/";
+        this.fileBaseUrl = fileUrl + botToken + "/";
+    }
+
+    public String call(String method, Object request) {
+        try (Tracer.Span ignored = tracer.span("bot", method)) {
+            return restTemplate.postForObject(baseUrl + method, request, String.class);
+        }
+    }
+
+    /**
+     * Sends {@code file} as a multipart part; the resource is streamed into the request body.
+     */
+    public String upload(String method, Map<String, ?> fields, String fileField, Resource file) {
+        MultiValueMap<String, Object> body = new LinkedMultiValueMap<>();
+        fields.forEach((name, value) -> body.add(name, String.valueOf(value)));
+        body.add(fileField, file);
+
+        HttpHeaders headers = new HttpHeaders();
+        headers.setContentType(MediaType.MULTIPART_FORM_DATA);
+        try (Tracer.Span ignored = tracer.span("bot", method)) {
+            return restTemplate.postForObject(baseUrl + method, new HttpEntity<>(body, headers), String.class);
+        }
+    }
+
+    /**
+     * Sends a multipart request whose file part is produced by {@code content} while the request is
+     * being written, so the file never exists in memory as a whole.
+     */
+    public String uploadStreaming(String method, Map<String, ?> fields, String fileField, String fileName,
+                                  String contentType, StreamingHttpOutputMessage.Body content) {
+        String boundary = "----" + UUID.randomUUID().toString().replace("-", "");
+        RequestCallback callback = request -> {
+            request.getHeaders().setContentType(MediaType.parseMediaType("multipart/form-data; boundary=" + boundary));
+            StreamingHttpOutputMessage.Body body = out -> {
+                for (Map.Entry<String, ?> field : fields.entrySet()) {
+                    out.write(("--" + boundary + "\r\nContent-Disposition: form-data; name=\"" + field.getKey()
+                            + "\"\r\n\r\n" + field.getValue() + "\r\n").getBytes(StandardCharsets.UTF_8));
+                }
+                out.write(("--" + boundary + "\r\nContent-Disposition: form-data; name=\"" + fileField
+                        + "\"; filename=\"" + fileName + "\"\r\nContent-Type: " + contentType + "\r\n\r\n")
+                        .getBytes(StandardCharsets.UTF_8));
+                content.writeTo(out);
+                out.write(("\r\n--" + boundary + "--\r\n").getBytes(StandardCharsets.UTF_8));
+            };
+            if (request instanceof StreamingHttpOutputMessage streaming) {
+                streaming.setBody(body);
+            } else {
+                body.writeTo(request.getBody());
+            }
+        };
+        try (Tracer.Span ignored = tracer.span("bot", method)) {
+            return restTemplate.execute(baseUrl + method, HttpMethod.POST, callback,
+                    response -> StreamUtils.copyToString(response.getBody(), StandardCharsets.UTF_8));
+        }
+    }
+
+    /**
+     * Downloads a file returned by {@code getFile}, handing the response body to {@code reader}.
+     */
+    public <T> T download(String filePath, ResponseExtractor<T> reader) {
+        try (Tracer.Span ignored = tracer.span("bot", "download")) {
+            return restTemplate.execute(URI.create(fileBaseUrl + filePath), HttpMethod.GET, null, reader);
+        }
+    }
+}
@@ -1,18 +1,26 @@
 package com.example.languageteacherbot.service;
 
+import com.example.languageteacherbot.entity.BroadcastJob;
+import com.example.languageteacherbot.entity.LearningEvent;
 import com.example.languageteacherbot.entity.User;
 import com.example.languageteacherbot.entity.Word;
 import com.example.languageteacherbot.entity.UserWord;
 import com.example.languageteacherbot.repository.UserRepository;
 import com.example.languageteacherbot.repository.WordRepository;
 import com.example.languageteacherbot.repository.UserWordRepository;
+import jakarta.annotation.PreDestroy;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.beans.factory.annotation.Value;
 import org.springframework.stereotype.Service;
-import org.springframework.web.client.RestTemplate;
+import org.springframework.web.util.HtmlUtils;
 import org.telegram.telegrambots.meta.api.objects.replykeyboard.InlineKeyboardMarkup;
 import org.telegram.telegrambots.meta.api.objects.replykeyboard.buttons.InlineKeyboardButton;
 
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.IOException;
 import java.time.LocalDateTime;
 import java.util.*;
 import java.util.concurrent.ConcurrentHashMap;
@@ -21,10 +29,34 @@ import java.util.stream.Collectors;
 @Service
 public class TelegramService {
 
-    @Value("${telegram.bot.token}")
-    private String BOT_TOKEN;
+    private static final int SEARCH_RESULT_LIMIT = 15;
+    private static final int MULTIPLE_CHOICE_OPTIONS = 4;
+    private static final int OPTION_LABEL_LIMIT = 40;
+    private static final int LEADERBOARD_SIZE = 10;
+    private static final long MAX_IMPORT_FILE_BYTES = 20L * 1024 * 1024;
+    private static final int DIFF_SAMPLE_SIZE = 5;
+    private static final byte SESSION_SNAPSHOT_VERSION = 1;
 
-    private final String SEND_MESSAGE_URL = "https://api.telegram.org/bot";
+    @Autowired
+    private TelegramApiClient telegramApiClient;
+
+    @Autowired
+    private UserActivityService userActivityService;
+
+    @Autowired
+    private LeaderboardService leaderboardService;
+
+    @Autowired
+    private MediaService mediaService;
+
+    @Autowired
+    private WordListTransferService wordListTransferService;
+
+    @Autowired
+    private VocabularyCsvImporter vocabularyCsvImporter;
+
+    @Autowired
+    private BroadcastService broadcastService;
 
     @Autowired
     private UserRepository userRepository;
@@ -35,11 +67,48 @@ public class TelegramService {
     @Autowired
     private UserWordRepository userWordRepository;
 
-    private final Map<Long, ConversationState> userStates = new HashMap<>();
-    private final Map<Long, FlashcardGameSession> activeFlashcardGames = new HashMap<>();
-    private final Map<Long, SentenceGameSession> activeSentenceGames = new HashMap<>();
-    private final Map<Long, Map<String, Long>> userWordDeleteMap = new HashMap<>();
+    @Autowired
+    private LearningEventService learningEventService;
+
+    @Autowired
+    private UserStatsService userStatsService;
+
+    @Autowired
+    private WordStatsService wordStatsService;
+
+    @Autowired
+    private GroupQuizService groupQuizService;
+
+    @Autowired
+    private VocabularyService vocabularyService;
+
+    @Autowired
+    private InlineQueryService inlineQueryService;
+
+    @Autowired
+    private DictionaryPageCache dictionaryPageCache;
+
+    @Autowired
+    private PagePacker pagePacker;
+
+    @Autowired
+    private SentenceCorpus sentenceCorpus;
+
+    @Autowired
+    private Tracer tracer;
+
+    @Autowired
+    private SessionSnapshotService sessionSnapshotService;
+
+    @Value("${inline-query.cache-time:300}")
+    private int inlineQueryCacheTime;
+
+    private final Map<Long, ConversationState> userStates = new ConcurrentHashMap<>();
+    private final Map<Long, FlashcardGameSession> activeFlashcardGames = new ConcurrentHashMap<>();
+    private final Map<Long, SentenceGameSession> activeSentenceGames = new ConcurrentHashMap<>();
+    private final Map<Long, Map<String, Long>> userWordDeleteMap = new ConcurrentHashMap<>();
     private final Map<Long, Integer> userDictionaryPage = new ConcurrentHashMap<>();
+    private final Map<Long, FlashcardMode> flashcardModes = new ConcurrentHashMap<>();
 
     public void sendMessage(Long chatId, String text) {
         sendMessageWithButtons(chatId, text, null);
@@ -71,41 +140,82 @@ public class TelegramService {
                 request.put("reply_markup", replyMarkup);
             }
 
-            RestTemplate restTemplate = new RestTemplate();
-            restTemplate.postForObject(SEND_MESSAGE_URL + BOT_TOKEN + "/sendMessage", request, String.class);
+            telegramApiClient.call("sendMessage", request);
         } catch (Exception e) {
             e.printStackTrace();
         }
     }
 
+    public boolean isInGame(Long chatId) {
+        return activeFlashcardGames.containsKey(chatId) || activeSentenceGames.containsKey(chatId);
+    }
+
     @SuppressWarnings("unchecked")
     public void processUpdate(Map<String, Object> update) {
         try {
+            if (update.containsKey("inline_query")) {
+                Map<String, Object> inlineQuery = (Map<String, Object>) update.get("inline_query");
+                String queryId = (String) inlineQuery.get("id");
+                String query = (String) inlineQuery.get("query");
+                answerInlineQuery(queryId, inlineQueryService.resultsPayload(query == null ? "" : query));
+                return;
+            }
+
             if (update.containsKey("callback_query")) {
                 Map<String, Object> callbackQuery = (Map<String, Object>) update.get("callback_query");
+                String callbackQueryId = (String) callbackQuery.get("id");
                 String data = (String) callbackQuery.get("data");
                 Map<String, Object> message = (Map<String, Object>) callbackQuery.get("message");
                 Long chatId = ((Number) ((Map<String, Object>) message.get("chat")).get("id")).longValue();
                 Integer messageId = ((Number) message.get("message_id")).intValue();
-
-                if (data.startsWith("dict_prev:")) {
-                    int page = Integer.parseInt(data.split(":")[1]);
-                    userDictionaryPage.put(chatId, page);
-                    editMessageWithDictionary(chatId, messageId);
-                } else if (data.startsWith("dict_next:")) {
-                    int page = Integer.parseInt(data.split(":")[1]);
-                    userDictionaryPage.put(chatId, page);
-                    editMessageWithDictionary(chatId, messageId);
-                } else if (data.startsWith("mywords_prev:")) {
-                    int page = Integer.parseInt(data.split(":")[1]);
-                    userDictionaryPage.put(chatId, page);
-                    editMessageWithMyWords(chatId, messageId);
-                } else if (data.startsWith("mywords_next:")) {
-                    int page = Integer.parseInt(data.split(":")[1]);
-                    userDictionaryPage.put(chatId, page);
-                    editMessageWithMyWords(chatId, messageId);
-                }else if (data.equals("main_menu")) {
-                    showMainMenu(chatId);
+                if (data.startsWith("gq:")) {
+                    Map<String, Object> fromMap = (Map<String, Object>) callbackQuery.get("from");
+                    try (Tracer.Span ignored = tracer.span("callback", "gq")) {
+                        groupQuizService.handleAnswer(chatId, callbackQueryId, ((Number) fromMap.get("id")).longValue(),
+                                displayName(fromMap), data);
+                    }
+                    return;
+                }
+                userActivityService.touch(chatId);
+                restoreSession(chatId);
+
+                try (Tracer.Span ignored = tracer.span("callback", data.split(":", 2)[0])) {
+                    if (data.startsWith("dict_prev:") || data.startsWith("dict_next:")) {
+                        String[] parts = data.split(":");
+                        int page = Integer.parseInt(parts[1]);
+                        userDictionaryPage.put(chatId, page);
+                        if (parts.length == 5) {
+                            editMessageWithDictionaryPage(chatId, messageId, parts[2], parts[3], parts[4], page);
+                        } else {
+                            editMessageWithDictionary(chatId, messageId);
+                        }
+                    } else if (data.startsWith("mywords_prev:")) {
+                        int page = Integer.parseInt(data.split(":")[1]);
+                        userDictionaryPage.put(chatId, page);
+                        editMessageWithMyWords(chatId, messageId);
+                    } else if (data.startsWith("mywords_next:")) {
+                        int page = Integer.parseInt(data.split(":")[1]);
+                        userDictionaryPage.put(chatId, page);
+                        editMessageWithMyWords(chatId, messageId);
+                    } else if (data.startsWith("mc:")) {
+                        String[] parts = data.split(":");
+                        handleMultipleChoiceAnswer(chatId, messageId, callbackQueryId, Integer.parseInt(parts[1]), Long.parseLong(parts[2]));
+                    } else if (data.startsWith("fc:")) {
+                        String[] parts = data.split(":");
+                        handleSelfCheckAnswer(chatId, messageId, callbackQueryId, Integer.parseInt(parts[1]), parts[2].equals("1"));
+                    } else if (data.equals("mc_quit")) {
+                        answerCallbackQuery(callbackQueryId, null);
+                        activeFlashcardGames.remove(chatId);
+                        showMainMenu(chatId);
+                    } else if (data.equals("mywords_export")) {
+                        exportMyWords(chatId);
+                    } else if (data.equals("mywords_import")) {
+                        promptImportFile(chatId);
+                    } else if (data.equals("dict_search")) {
+                        promptSearchQuery(chatId);
+                    } else if (data.equals("main_menu")) {
+                        showMainMenu(chatId);
+                    }
                 }
                 return;
             }
@@ -116,17 +226,41 @@ public class TelegramService {
             Map<String, Object> chatMap = (Map<String, Object>) message.get("chat");
             Long chatId = ((Number) chatMap.get("id")).longValue();
             String text = (String) message.get("text");
+            if ("group".equals(chatMap.get("type")) || "supergroup".equals(chatMap.get("type"))) {
+                if (text != null) {
+                    try (Tracer.Span ignored = tracer.span("handler", "groupQuiz")) {
+                        handleGroupCommand(chatId, (Map<String, Object>) message.get("from"), text);
+                    }
+                }
+                return;
+            }
+            userActivityService.touch(chatId);
+            restoreSession(chatId);
+
+            if (message.containsKey("document")) {
+                if (userStates.get(chatId) == ConversationState.AWAITING_IMPORT_FILE) {
+                    try (Tracer.Span ignored = tracer.span("handler", "importFile")) {
+                        handleImportFile(chatId, (Map<String, Object>) message.get("document"));
+                    }
+                }
+                return;
+            }
+            if (text == null) return;
 
             Map<String, Object> fromMap = (Map<String, Object>) message.get("from");
             String firstName = (String) fromMap.get("first_name");
             String lastName = (String) fromMap.get("last_name");
 
             if (activeFlashcardGames.containsKey(chatId)) {
-                handleFlashcardGameInput(chatId, text);
+                try (Tracer.Span ignored = tracer.span("handler", "flashcardGame")) {
+                    handleFlashcardGameInput(chatId, text);
+                }
                 return;
             }
             if (activeSentenceGames.containsKey(chatId)) {
-                handleSentenceGameInput(chatId, text);
+                try (Tracer.Span ignored = tracer.span("handler", "sentenceGame")) {
+                    handleSentenceGameInput(chatId, text);
+                }
                 return;
             }
 
@@ -141,22 +275,26 @@ public class TelegramService {
                 return;
             }
 
-            switch (state) {
-                case START -> handleStart(chatId, firstName, lastName);
-                case AWAITING_NATIVE_LANG -> handleNativeLanguageSelection(chatId, text);
-                case AWAITING_TARGET_LANG -> handleTargetLanguageSelection(chatId, text);
-                case AWAITING_LEVEL -> handleLevelSelection(chatId, text);
-                case IN_MENU -> handleMenuCommand(chatId, text);
-                case IN_MY_WORDS -> handleMyWordsCommand(chatId, text);
-                case IN_SENTENCE_GAME -> handleSentenceGameInput(chatId, text);
-                case IN_SETTINGS -> handleSettingsCommand(chatId, text);
-                case IN_DICTIONARY -> handleDictionaryCommand(chatId, text);
-                case AWAITING_NEW_NATIVE_LANG -> handleNewNativeLanguageSelection(chatId, text);
-                case AWAITING_NEW_TARGET_LANG -> handleNewTargetLanguageSelection(chatId, text);
-                case AWAITING_NEW_LEVEL -> handleNewLevelSelection(chatId, text);
-                default -> {
-                    sendMessage(chatId, "Произошла ошибка. Пожалуйста, начните сначала с команды /start.");
-                    userStates.put(chatId, ConversationState.START);
+            try (Tracer.Span ignored = tracer.span("handler", state.name())) {
+                switch (state) {
+                    case START -> handleStart(chatId, firstName, lastName);
+                    case AWAITING_NATIVE_LANG -> handleNativeLanguageSelection(chatId, text);
+                    case AWAITING_TARGET_LANG -> handleTargetLanguageSelection(chatId, text);
+                    case AWAITING_LEVEL -> handleLevelSelection(chatId, text);
+                    case IN_MENU -> handleMenuCommand(chatId, text);
+                    case IN_MY_WORDS -> handleMyWordsCommand(chatId, text);
+                    case IN_SENTENCE_GAME -> handleSentenceGameInput(chatId, text);
+                    case IN_SETTINGS -> handleSettingsCommand(chatId, text);
+                    case IN_DICTIONARY -> handleDictionaryCommand(chatId, text);
+                    case AWAITING_SEARCH_QUERY -> handleSearchQuery(chatId, text);
+                    case AWAITING_IMPORT_FILE -> promptImportFile(chatId);
+                    case AWAITING_NEW_NATIVE_LANG -> handleNewNativeLanguageSelection(chatId, text);
+                    case AWAITING_NEW_TARGET_LANG -> handleNewTargetLanguageSelection(chatId, text);
+                    case AWAITING_NEW_LEVEL -> handleNewLevelSelection(chatId, text);
+                    default -> {
+                        sendMessage(chatId, "Произошла ошибка. Пожалуйста, начните сначала с команды /start.");
+                        userStates.put(chatId, ConversationState.START);
+                    }
                 }
             }
 
@@ -165,42 +303,81 @@ public class TelegramService {
         }
     }
 
+    /**
+     * Group chats only understand {@code /quiz} and {@code /quiz_stop}; the quiz uses the language,
+     * level and interface language of the member who started it, if they use the bot privately.
+     */
+    private void handleGroupCommand(Long chatId, Map<String, Object> fromMap, String text) {
+        String command = text.trim().split("[\\s@]", 2)[0];
+        if (command.equals("/quiz")) {
+            Optional<User> starter = fromMap == null ? Optional.empty()
+                    : userRepository.findByChatId(((Number) fromMap.get("id")).longValue());
+            groupQuizService.start(chatId,
+                    starter.map(User::getNativeLanguage).orElse("ru"),
+                    starter.map(User::getTargetLanguage).orElse("zh"),
+                    starter.map(User::getLevel).orElse("A1"));
+        } else if (command.equals("/quiz_stop")) {
+            groupQuizService.stop(chatId);
+        }
+    }
+
+    private static String displayName(Map<String, Object> fromMap) {
+        String firstName = (String) fromMap.get("first_name");
+        if (firstName != null && !firstName.isBlank()) {
+            return firstName;
+        }
+        Object username = fromMap.get("username");
+        return username != null ? "@" + username : String.valueOf(fromMap.get("id"));
+    }
+
     private void editMessageWithMyWords(Long chatId, Integer messageId) {
         Optional<User> userOpt = userRepository.findByChatId(chatId);
         if (userOpt.isEmpty()) return;
 
         List<UserWord> allUserWords = userWordRepository.findByUserChatId(chatId);
-        int pageSize = 30;
-        int totalPages = (int) Math.ceil((double) allUserWords.size() / pageSize);
-
-        int currentPage = userDictionaryPage.getOrDefault(chatId, 0);
-
-        int fromIndex = currentPage * pageSize;
-        int toIndex = Math.min(fromIndex + pageSize, allUserWords.size());
-        List<UserWord> wordsOnPage = allUserWords.subList(fromIndex, toIndex);
-
-        StringBuilder sb = new StringBuilder();
         String nativeLang = userOpt.get().getNativeLanguage();
+        MyWordsPage page = renderMyWordsPage(allUserWords, nativeLang, userDictionaryPage.getOrDefault(chatId, 0));
 
-        if (nativeLang.equals("ru")) {
-            sb.append("🔁 *Твои слова (Не знаю)* (").append(currentPage + 1).append("/").append(totalPages).append("):\n\n");
-        } else {
-            sb.append("🔁 *你的单词 (不认识)* (").append(currentPage + 1).append("/").append(totalPages).append("):\n\n");
-        }
+        InlineKeyboardMarkup keyboard = createMyWordsInlineKeyboard(chatId, page.page(), page.totalPages(), nativeLang);
+        editMessageText(chatId, messageId, page.text(), keyboard);
+    }
+
+    private MyWordsPage renderMyWordsPage(List<UserWord> allUserWords, String nativeLang, int requestedPage) {
+        int headerLength = myWordsHeader(nativeLang, allUserWords.size(), allUserWords.size()).length();
 
-        for (int i = 0; i < wordsOnPage.size(); i++) {
-            UserWord uw = wordsOnPage.get(i);
+        List<String> lines = new ArrayList<>(allUserWords.size());
+        for (int i = 0; i < allUserWords.size(); i++) {
+            Word w = allUserWords.get(i).getWord();
             String wordLine;
-            if (uw.getWord().getTranscription() != null && !uw.getWord().getTranscription().isEmpty()) {
-                wordLine = (currentPage * pageSize + i + 1) + ". " + uw.getWord().getWord() + " (" + uw.getWord().getTranscription() + ") — " + uw.getWord().getTranslation();
+            if (w.getTranscription() != null && !w.getTranscription().isEmpty()) {
+                wordLine = (i + 1) + ". " + PagePacker.escapeMarkdown(w.getWord()) + " (" + PagePacker.escapeMarkdown(w.getTranscription()) + ") — " + PagePacker.escapeMarkdown(w.getTranslation());
             } else {
-                wordLine = (currentPage * pageSize + i + 1) + ". " + uw.getWord().getWord() + " — " + uw.getWord().getTranslation();
+                wordLine = (i + 1) + ". " + PagePacker.escapeMarkdown(w.getWord()) + " — " + PagePacker.escapeMarkdown(w.getTranslation());
+            }
+            lines.add(pagePacker.fit(wordLine + "\n", headerLength));
+        }
+
+        int[] boundaries = pagePacker.boundaries(lines, headerLength);
+        int totalPages = pagePacker.pageCount(boundaries);
+        int currentPage = Math.max(0, Math.min(requestedPage, totalPages - 1));
+
+        StringBuilder sb = new StringBuilder(myWordsHeader(nativeLang, currentPage + 1, totalPages));
+        if (totalPages > 0) {
+            for (String line : lines.subList(boundaries[currentPage], boundaries[currentPage + 1])) {
+                sb.append(line);
             }
-            sb.append(wordLine).append("\n");
         }
+        return new MyWordsPage(sb.toString(), currentPage, totalPages);
+    }
 
-        InlineKeyboardMarkup keyboard = createMyWordsInlineKeyboard(chatId, currentPage, totalPages, nativeLang);
-        editMessageText(chatId, messageId, sb.toString(), keyboard);
+    private static String myWordsHeader(String nativeLang, int page, int totalPages) {
+        if (nativeLang.equals("ru")) {
+            return "🔁 *Твои слова (Не знаю)* (" + page + "/" + totalPages + "):\n\n";
+        }
+        return "🔁 *你的单词 (不认识)* (" + page + "/" + totalPages + "):\n\n";
+    }
+
+    private record MyWordsPage(String text, int page, int totalPages) {
     }
 
     private void handleStart(Long chatId, String firstName, String lastName) {
@@ -365,14 +542,16 @@ public class TelegramService {
             menuButtons = List.of(
                     List.of("🎮 Игры"),
                     List.of("📘 Словарь", "🔁 Мои слова"),
-                    List.of("⚙️ Настройки")
+                    List.of("⚙️ Настройки", "📊 Статистика"),
+                    List.of("🏆 Рейтинг")
             );
         } else {
             menuText = "🎯 *主菜单*";
             menuButtons = List.of(
                     List.of("🎮 游戏"),
                     List.of("📘 词典", "🔁 我的单词"),
-                    List.of("⚙️ 设置")
+                    List.of("⚙️ 设置", "📊 统计"),
+                    List.of("🏆 排行榜")
             );
         }
 
@@ -388,6 +567,8 @@ public class TelegramService {
         String dictCmd = nativeLang.equals("ru") ? "📘 Словарь" : "📘 词典";
         String myWordsCmd = nativeLang.equals("ru") ? "🔁 Мои слова" : "🔁 我的单词";
         String settingsCmd = nativeLang.equals("ru") ? "⚙️ Настройки" : "⚙️ 设置";
+        String statsCmd = nativeLang.equals("ru") ? "📊 Статистика" : "📊 统计";
+        String leaderboardCmd = nativeLang.equals("ru") ? "🏆 Рейтинг" : "🏆 排行榜";
         String flashcardCmd = nativeLang.equals("ru") ? "Flash card (Карточки)" : "Flash card (单词卡片)";
 
         if (command.equals(gamesCmd)) {
@@ -399,6 +580,28 @@ public class TelegramService {
             showMyWords(chatId);
         } else if (command.equals(settingsCmd)) {
             showSettings(chatId);
+        } else if (command.equals(statsCmd)) {
+            showStatistics(chatId);
+        } else if (command.equals(leaderboardCmd)) {
+            showLeaderboard(chatId);
+        } else if (command.startsWith("/search")) {
+            String query = command.substring("/search".length()).trim();
+            if (query.isEmpty()) {
+                promptSearchQuery(chatId);
+            } else {
+                handleSearchQuery(chatId, query);
+            }
+        } else if (command.startsWith("/broadcast ") && broadcastService.isAdmin(chatId)) {
+            BroadcastJob job = broadcastService.startBroadcast(command.substring("/broadcast ".length()).trim());
+            sendMessage(chatId, nativeLang.equals("ru")
+                ? "📣 Рассылка #" + job.getId() + " поставлена в очередь."
+                : "📣 群发 #" + job.getId() + " 已加入队列。");
+        } else if (command.startsWith("/reload_vocab") && broadcastService.isAdmin(chatId)) {
+            reloadVocabulary(chatId, command.endsWith(" csv"));
+        } else if (command.equals("/export")) {
+            exportMyWords(chatId);
+        } else if (command.equals("/import")) {
+            promptImportFile(chatId);
         } else if (command.equals("/start")) {
             if(userOpt.isPresent()) {
                 showMainMenu(chatId);
@@ -413,6 +616,18 @@ public class TelegramService {
         } else if (command.equals(flashcardCmd)) {
             showFlashcardOptions(chatId);
             return;
+        } else if (command.equals("✍️ Ввод ответа") || command.equals("✍️ 输入答案")) {
+            flashcardModes.put(chatId, FlashcardMode.TYPING);
+            showFlashcardOptions(chatId);
+        } else if (command.equals("🔘 Выбор ответа") || command.equals("🔘 选择答案")) {
+            flashcardModes.put(chatId, FlashcardMode.MULTIPLE_CHOICE);
+            showFlashcardOptions(chatId);
+        } else if (command.equals("🃏 Самопроверка") || command.equals("🃏 自我检查")) {
+            flashcardModes.put(chatId, FlashcardMode.SELF_CHECK);
+            showFlashcardOptions(chatId);
+        } else if (command.equals("🔁 Обратный перевод") || command.equals("🔁 反向翻译")) {
+            flashcardModes.put(chatId, FlashcardMode.REVERSE);
+            showFlashcardOptions(chatId);
         } else if (command.contains("Все слова") || command.contains("全部单词")) {
             startFlashcardGame(chatId, null, false);
         } else if (command.contains("Только мои слова") || command.contains("仅我的单词")) {
@@ -427,8 +642,8 @@ public class TelegramService {
             showDictionary(chatId);
         } else if (command.equals(nativeLang.equals("ru") ? "Вперёд ➡️" : "下一页 ➡️")) {
             int currentPage = userDictionaryPage.getOrDefault(chatId, 0);
-            int totalPages = (int) Math.ceil((double) wordRepository.findByLevelAndLang(
-                userOpt.get().getLevel(), userOpt.get().getTargetLanguage()).size() / 30.0);
+            int totalPages = dictionaryPageCache.pageCount(
+                userOpt.get().getTargetLanguage(), userOpt.get().getLevel(), nativeLang);
             if (currentPage < totalPages - 1) {
                 userDictionaryPage.put(chatId, currentPage + 1);
             }
@@ -493,13 +708,23 @@ public class TelegramService {
         }
 
         if (amount != null && amount < words.size()) {
-            Collections.shuffle(words);
-            words = words.subList(0, amount);
+            words = wordStatsService.sampleDeck(chatId, words, amount);
         }
 
-        FlashcardGameSession session = new FlashcardGameSession(chatId, "flashcard", words, 0);
+        FlashcardMode mode = flashcardModes.getOrDefault(chatId, FlashcardMode.TYPING);
+        String gameType = switch (mode) {
+            case MULTIPLE_CHOICE -> "flashcard_mc";
+            case SELF_CHECK -> "flashcard_self_check";
+            case REVERSE -> "flashcard_reverse";
+            default -> "flashcard";
+        };
+        FlashcardGameSession session = new FlashcardGameSession(chatId, gameType, words, 0, mode, user.getNativeLanguage());
         activeFlashcardGames.put(chatId, session);
-        sendFlashcard(chatId, session);
+        if (mode == FlashcardMode.SELF_CHECK) {
+            sendSelfCheckCard(chatId, session);
+        } else {
+            sendFlashcard(chatId, session);
+        }
     }
 
     private void sendFlashcard(Long chatId, FlashcardGameSession session) {
@@ -512,9 +737,7 @@ public class TelegramService {
         }
 
         Word currentWord = words.get(index);
-
-        Optional<User> userOpt = userRepository.findByChatId(chatId);
-        String nativeLang = userOpt.map(User::getNativeLanguage).orElse("ru");
+        String nativeLang = session.getNativeLang();
 
         String wordDisplay;
         if (currentWord.getTranscription() != null && !currentWord.getTranscription().isEmpty()) {
@@ -523,9 +746,25 @@ public class TelegramService {
             wordDisplay = currentWord.getWord();
         }
 
+        if (session.getMode() == FlashcardMode.MULTIPLE_CHOICE && sendMultipleChoiceCard(chatId, session, currentWord, wordDisplay)) {
+            mediaService.attach(chatId, currentWord);
+            session.markCardShown();
+            learningEventService.recordShown(chatId, session.getGameType(), currentWord.getId());
+            return;
+        }
+
         String question;
         String instruction;
-        if (nativeLang.equals("ru")) {
+        if (session.getMode() == FlashcardMode.REVERSE) {
+            boolean zh = currentWord.getLang().equals("zh");
+            if (nativeLang.equals("ru")) {
+                question = "🔤 *Напиши слово " + (zh ? "по-китайски" : "по-русски") + ":*\n\n" + currentWord.getTranslation();
+                instruction = zh ? "\n\n(Иероглифами или пиньинем, тоны можно не ставить)" : "\n\n(Или нажми 'Не знаю')";
+            } else {
+                question = "🔤 *用" + (zh ? "中文" : "俄语") + "写出这个词:*\n\n" + currentWord.getTranslation();
+                instruction = zh ? "\n\n(汉字或拼音，可以不写声调)" : "\n\n(或点击“不认识”)";
+            }
+        } else if (nativeLang.equals("ru")) {
             question = "🔤 *Переведи слово:*\n\n" + wordDisplay;
             instruction = "\n\n(Напиши перевод или нажми 'Не знаю')";
         } else {
@@ -541,31 +780,222 @@ public class TelegramService {
         );
 
         sendMessageWithButtons(chatId, question + instruction, buttons);
+        if (session.getMode() != FlashcardMode.REVERSE) {
+            mediaService.attach(chatId, currentWord);
+        }
+        session.markCardShown();
+        learningEventService.recordShown(chatId, session.getGameType(), currentWord.getId());
+    }
+
+    private boolean sendMultipleChoiceCard(Long chatId, FlashcardGameSession session, Word word, String wordDisplay) {
+        List<Word> distractors = vocabularyService.getVocabulary().pickDistractors(word, MULTIPLE_CHOICE_OPTIONS - 1);
+        if (distractors.isEmpty()) {
+            return false;
+        }
+
+        List<Word> options = new ArrayList<>(MULTIPLE_CHOICE_OPTIONS);
+        options.add(word);
+        options.addAll(distractors);
+        Collections.shuffle(options);
+
+        boolean ru = session.getNativeLang().equals("ru");
+        int index = session.getCurrentIndex();
+        List<List<InlineKeyboardButton>> rows = new ArrayList<>();
+        for (Word option : options) {
+            InlineKeyboardButton button = new InlineKeyboardButton();
+            button.setText(optionLabel(option.getTranslation()));
+            button.setCallbackData("mc:" + index + ":" + option.getId());
+            rows.add(List.of(button));
+        }
+
+        InlineKeyboardButton dontKnowButton = new InlineKeyboardButton();
+        dontKnowButton.setText(ru ? "Не знаю" : "不认识");
+        dontKnowButton.setCallbackData("mc:" + index + ":0");
+        InlineKeyboardButton quitButton = new InlineKeyboardButton();
+        quitButton.setText(ru ? "Вернуться в меню" : "返回菜单");
+        quitButton.setCallbackData("mc_quit");
+        rows.add(List.of(dontKnowButton, quitButton));
+
+        InlineKeyboardMarkup keyboard = new InlineKeyboardMarkup();
+        keyboard.setKeyboard(rows);
+
+        String question = ru
+            ? "🔤 *Выбери перевод* (" + (index + 1) + "/" + session.getWords().size() + "):\n\n" + wordDisplay
+            : "🔤 *选择翻译* (" + (index + 1) + "/" + session.getWords().size() + "):\n\n" + wordDisplay;
+        sendMessageWithInlineKeyboard(chatId, question, keyboard);
+        return true;
+    }
+
+    private static String optionLabel(String translation) {
+        return translation.length() <= OPTION_LABEL_LIMIT
+            ? translation
+            : translation.substring(0, OPTION_LABEL_LIMIT - 1) + "…";
+    }
+
+    private void handleMultipleChoiceAnswer(Long chatId, Integer messageId, String callbackQueryId, int cardIndex, long chosenWordId) {
+        FlashcardGameSession session = activeFlashcardGames.get(chatId);
+        if (session == null || session.getCurrentIndex() != cardIndex) {
+            answerCallbackQuery(callbackQueryId, null);
+            return;
+        }
+
+        Word currentWord = session.getWords().get(cardIndex);
+        LearningEvent.Outcome outcome;
+        if (chosenWordId == 0) {
+            outcome = LearningEvent.Outcome.DONT_KNOW;
+        } else if (currentWord.getId() == chosenWordId) {
+            outcome = LearningEvent.Outcome.CORRECT;
+        } else {
+            outcome = LearningEvent.Outcome.INCORRECT;
+        }
+
+        String response = gradeFlashcardAnswer(chatId, session, outcome);
+        answerCallbackQuery(callbackQueryId, null);
+        InlineKeyboardMarkup noButtons = new InlineKeyboardMarkup();
+        noButtons.setKeyboard(List.of());
+        editMessageText(chatId, messageId, currentWord.getWord() + "\n\n" + response, noButtons);
+        advanceFlashcardGame(chatId, session);
+    }
+
+    /**
+     * Self-check cards are a single message: the translation is hidden under a spoiler and the
+     * player answers with inline buttons, after which the same message is edited into the next card.
+     */
+    private void sendSelfCheckCard(Long chatId, FlashcardGameSession session) {
+        Word word = session.getWords().get(session.getCurrentIndex());
+        Map<String, Object> request = new HashMap<>();
+        request.put("chat_id", chatId);
+        request.put("text", selfCheckCardText(session, null));
+        request.put("parse_mode", "HTML");
+        request.put("reply_markup", selfCheckKeyboard(session));
+        try {
+            telegramApiClient.call("sendMessage", request);
+        } catch (Exception e) {
+            e.printStackTrace();
+        }
+        session.markCardShown();
+        learningEventService.recordShown(chatId, session.getGameType(), word.getId());
+    }
+
+    private void handleSelfCheckAnswer(Long chatId, Integer messageId, String callbackQueryId, int cardIndex, boolean known) {
+        FlashcardGameSession session = activeFlashcardGames.get(chatId);
+        if (session == null || session.getMode() != FlashcardMode.SELF_CHECK || session.getCurrentIndex() != cardIndex) {
+            answerCallbackQuery(callbackQueryId, null);
+            return;
+        }
+
+        boolean ru = session.getNativeLang().equals("ru");
+        Word word = session.getWords().get(cardIndex);
+        recordFlashcardAnswer(chatId, session, known ? LearningEvent.Outcome.CORRECT : LearningEvent.Outcome.DONT_KNOW);
+        answerCallbackQuery(callbackQueryId, known
+            ? (ru ? "✅ Знаю" : "✅ 认识")
+            : (ru ? "📌 Добавлено в мои слова" : "📌 已添加到我的单词"));
+
+        String verdict = (known ? "✅ " : "🔹 ") + HtmlUtils.htmlEscape(word.getWord(), "UTF-8") + " — "
+            + HtmlUtils.htmlEscape(word.getTranslation(), "UTF-8");
+        session.setCurrentIndex(cardIndex + 1);
+
+        Map<String, Object> request = new HashMap<>();
+        request.put("chat_id", chatId);
+        request.put("message_id", messageId);
+        request.put("parse_mode", "HTML");
+        boolean finished = session.getCurrentIndex() >= session.getWords().size();
+        if (finished) {
+            request.put("text", verdict);
+        } else {
+            request.put("text", selfCheckCardText(session, verdict));
+            request.put("reply_markup", selfCheckKeyboard(session));
+        }
+        try {
+            telegramApiClient.call("editMessageText", request);
+        } catch (Exception e) {
+            e.printStackTrace();
+        }
+
+        if (finished) {
+            finishFlashcardGame(chatId, session);
+        } else {
+            session.markCardShown();
+            learningEventService.recordShown(chatId, session.getGameType(), session.getWords().get(session.getCurrentIndex()).getId());
+        }
+    }
+
+    private static String selfCheckCardText(FlashcardGameSession session, String previousVerdict) {
+        Word word = session.getWords().get(session.getCurrentIndex());
+        boolean ru = session.getNativeLang().equals("ru");
+        StringBuilder text = new StringBuilder();
+        if (previousVerdict != null) {
+            text.append(previousVerdict).append("\n\n");
+        }
+        text.append(ru ? "🔤 <b>Вспомни перевод</b> (" : "🔤 <b>回想翻译</b> (")
+            .append(session.getCurrentIndex() + 1).append('/').append(session.getWords().size()).append("):\n\n")
+            .append("<b>").append(HtmlUtils.htmlEscape(word.getWord(), "UTF-8")).append("</b>");
+        if (word.getTranscription() != null && !word.getTranscription().isEmpty()) {
+            text.append(" (").append(HtmlUtils.htmlEscape(word.getTranscription(), "UTF-8")).append(')');
+        }
+        text.append("\n\n<tg-spoiler>").append(HtmlUtils.htmlEscape(word.getTranslation(), "UTF-8")).append("</tg-spoiler>");
+        return text.toString();
+    }
+
+    private static InlineKeyboardMarkup selfCheckKeyboard(FlashcardGameSession session) {
+        boolean ru = session.getNativeLang().equals("ru");
+        int index = session.getCurrentIndex();
+
+        InlineKeyboardButton knowButton = new InlineKeyboardButton();
+        knowButton.setText(ru ? "✅ Знаю" : "✅ 认识");
+        knowButton.setCallbackData("fc:" + index + ":1");
+        InlineKeyboardButton dontKnowButton = new InlineKeyboardButton();
+        dontKnowButton.setText(ru ? "❌ Не знаю" : "❌ 不认识");
+        dontKnowButton.setCallbackData("fc:" + index + ":0");
+        InlineKeyboardButton quitButton = new InlineKeyboardButton();
+        quitButton.setText(ru ? "Вернуться в меню" : "返回菜单");
+        quitButton.setCallbackData("mc_quit");
+
+        InlineKeyboardMarkup keyboard = new InlineKeyboardMarkup();
+        keyboard.setKeyboard(List.of(List.of(knowButton, dontKnowButton), List.of(quitButton)));
+        return keyboard;
     }
 
     private void showFlashcardOptions(Long chatId) {
         Optional<User> userOpt = userRepository.findByChatId(chatId);
         String nativeLang = userOpt.map(User::getNativeLanguage).orElse("ru");
+        FlashcardMode mode = flashcardModes.getOrDefault(chatId, FlashcardMode.TYPING);
 
         String text;
         List<List<String>> buttons;
 
         if (nativeLang.equals("ru")) {
             text = "⚙️ *Настройки игры 'Карточки':*\n\n" +
+                "Режим: " + switch (mode) {
+                    case MULTIPLE_CHOICE -> "выбор ответа";
+                    case SELF_CHECK -> "самопроверка";
+                    case REVERSE -> "обратный перевод";
+                    default -> "ввод ответа";
+                } + "\n" +
                 "Выбери количество слов и источник:";
             buttons = List.of(
                 List.of("10 слов", "20 слов", "30 слов"),
                 List.of("45 слов", "60 слов", "90 слов"),
                 List.of("Все слова", "Только мои слова"),
+                List.of("✍️ Ввод ответа", "🔘 Выбор ответа"),
+                List.of("🃏 Самопроверка", "🔁 Обратный перевод"),
                 List.of("⬅️ Назад в меню")
             );
         } else {
             text = "⚙️ *“单词卡片”游戏设置:*\n\n" +
+                "模式：" + switch (mode) {
+                    case MULTIPLE_CHOICE -> "选择答案";
+                    case SELF_CHECK -> "自我检查";
+                    case REVERSE -> "反向翻译";
+                    default -> "输入答案";
+                } + "\n" +
                 "选择单词数量和来源：";
             buttons = List.of(
                 List.of("10 个词", "20 个词", "30 个词"),
                 List.of("45 个词", "60 个词", "90 个词"),
                 List.of("全部单词", "仅我的单词"),
+                List.of("✍️ 输入答案", "🔘 选择答案"),
+                List.of("🃏 自我检查", "🔁 反向翻译"),
                 List.of("⬅️ 返回菜单")
             );
         }
@@ -581,58 +1011,84 @@ public class TelegramService {
             return;
         }
 
-        List<Word> words = session.getWords();
-        int index = session.getCurrentIndex();
-        Word currentWord = words.get(index);
-        String correctAnswer = currentWord.getTranslation();
-
-        Optional<User> userOpt = userRepository.findByChatId(chatId);
-        String nativeLang = userOpt.map(User::getNativeLanguage).orElse("ru");
+        if (session.getMode() == FlashcardMode.SELF_CHECK) {
+            sendMessage(chatId, session.getNativeLang().equals("ru")
+                ? "👆 Отвечай кнопками под карточкой."
+                : "👆 请使用卡片下方的按钮回答。");
+            return;
+        }
 
-        String response;
-        String dontKnowButton = nativeLang.equals("ru") ? "Не знаю" : "不认识";
+        Word currentWord = session.getWords().get(session.getCurrentIndex());
+        String dontKnowButton = session.getNativeLang().equals("ru") ? "Не знаю" : "不认识";
 
+        LearningEvent.Outcome outcome;
         if (userAnswer.equals(dontKnowButton)) {
-            session.incrementDontKnowCount();
-            if (nativeLang.equals("ru")) {
-                response = "🔹 Правильный перевод: *" + correctAnswer + "*";
-            } else {
-                response = "🔹 正确翻译: *" + correctAnswer + "*";
-            }
-            addToMyWords(chatId, currentWord);
+            outcome = LearningEvent.Outcome.DONT_KNOW;
+        } else if (session.getMode() == FlashcardMode.REVERSE) {
+            outcome = vocabularyService.getVocabulary().isReverseAnswer(currentWord, userAnswer)
+                ? LearningEvent.Outcome.CORRECT
+                : LearningEvent.Outcome.INCORRECT;
         } else {
-            String[] correctAnswers = correctAnswer.split(",");
-            boolean isCorrect = false;
-            for (String correct : correctAnswers) {
+            outcome = LearningEvent.Outcome.INCORRECT;
+            for (String correct : currentWord.getTranslation().split(",")) {
                 if (userAnswer.trim().equalsIgnoreCase(correct.trim())) {
-                    isCorrect = true;
+                    outcome = LearningEvent.Outcome.CORRECT;
                     break;
                 }
             }
+        }
+
+        sendMessage(chatId, gradeFlashcardAnswer(chatId, session, outcome));
+        advanceFlashcardGame(chatId, session);
+    }
+
+    private String gradeFlashcardAnswer(Long chatId, FlashcardGameSession session, LearningEvent.Outcome outcome) {
+        Word currentWord = session.getWords().get(session.getCurrentIndex());
+        String correctAnswer = currentWord.getTranslation();
+        if (session.getMode() == FlashcardMode.REVERSE) {
+            correctAnswer = currentWord.getTranscription() == null || currentWord.getTranscription().isEmpty()
+                ? currentWord.getWord()
+                : currentWord.getWord() + " (" + currentWord.getTranscription() + ")";
+        }
+        boolean ru = session.getNativeLang().equals("ru");
+        recordFlashcardAnswer(chatId, session, outcome);
+
+        return switch (outcome) {
+            case CORRECT -> ru ? "✅ Правильно!" : "✅ 正确！";
+            case DONT_KNOW -> ru
+                ? "🔹 Правильный перевод: *" + correctAnswer + "*"
+                : "🔹 正确翻译: *" + correctAnswer + "*";
+            default -> ru
+                ? "❌ Неправильно. \nПравильный перевод: *" + correctAnswer + "*"
+                : "❌ 错误。\n 正确翻译: *" + correctAnswer + "*";
+        };
+    }
+
+    private void recordFlashcardAnswer(Long chatId, FlashcardGameSession session, LearningEvent.Outcome outcome) {
+        Word currentWord = session.getWords().get(session.getCurrentIndex());
+        long latencyMs = System.currentTimeMillis() - session.getCardShownAt();
 
-            if (isCorrect) {
+        learningEventService.recordAnswered(chatId, session.getGameType(), currentWord.getId(), outcome, latencyMs);
+        userStatsService.recordAnswer(chatId, currentWord, outcome == LearningEvent.Outcome.CORRECT);
+        wordStatsService.recordAnswer(chatId, currentWord.getId(), outcome == LearningEvent.Outcome.CORRECT);
+
+        switch (outcome) {
+            case CORRECT -> {
                 session.incrementCorrectCount();
-                if (nativeLang.equals("ru")) {
-                    response = "✅ Правильно!";
-                } else {
-                    response = "✅ 正确！";
-                }
-            } else {
-                if (nativeLang.equals("ru")) {
-                    response = "❌ Неправильно. \nПравильный перевод: *" + correctAnswer + "*";
-                } else {
-                    response = "❌ 错误。\n 正确翻译: *" + correctAnswer + "*";
-                }
+                leaderboardService.recordCorrect(chatId, currentWord);
+            }
+            case DONT_KNOW -> {
+                session.incrementDontKnowCount();
                 addToMyWords(chatId, currentWord);
             }
+            default -> addToMyWords(chatId, currentWord);
         }
+    }
 
-        sendMessage(chatId, response);
-
-        session.setCurrentIndex(index + 1);
-        activeFlashcardGames.put(chatId, session);
+    private void advanceFlashcardGame(Long chatId, FlashcardGameSession session) {
+        session.setCurrentIndex(session.getCurrentIndex() + 1);
 
-        if (session.getCurrentIndex() >= words.size()) {
+        if (session.getCurrentIndex() >= session.getWords().size()) {
             finishFlashcardGame(chatId, session);
         } else {
             try { Thread.sleep(1000); } catch (InterruptedException ignored) {}
@@ -646,10 +1102,12 @@ public class TelegramService {
         Optional<User> userOpt = userRepository.findByChatId(chatId);
         String nativeLang = userOpt.map(User::getNativeLanguage).orElse("ru");
 
-        long timeSpent = (System.currentTimeMillis() - session.getStartTime()) / 1000;
+        long durationMs = System.currentTimeMillis() - session.getStartTime();
+        long timeSpent = durationMs / 1000;
         int correct = session.getCorrectCount();
         int dontKnow = session.getDontKnowCount();
         int total = session.getWords().size();
+        learningEventService.recordGameFinished(chatId, session.getGameType(), correct, total, durationMs);
 
         String stats;
         if (nativeLang.equals("ru")) {
@@ -680,9 +1138,9 @@ public class TelegramService {
         }
 
         User user = userOpt.get();
-        List<Word> words = wordRepository.findByLevelAndLang(user.getLevel(), user.getTargetLanguage());
+        Optional<SentenceCorpus.Sentence> sentenceOpt = sentenceCorpus.randomSentence(user.getTargetLanguage(), user.getLevel());
 
-        if (words.size() < 3) {
+        if (sentenceOpt.isEmpty()) {
             String nativeLang = user.getNativeLanguage();
             String message = nativeLang.equals("ru") ? "😔 Недостаточно слов для этой игры на твоём уровне. Попробуй другой уровень или язык." : "😔 你这个级别的游戏单词不够。尝试其他级别或语言。";
             sendMessage(chatId, message);
@@ -690,12 +1148,8 @@ public class TelegramService {
             return;
         }
 
-        Collections.shuffle(words);
-        List<Word> selectedWords = words.subList(0, Math.min(5, words.size()));
-
-        String correctSentence = createSimpleSentence(selectedWords, user.getTargetLanguage());
-
-        SentenceGameSession session = new SentenceGameSession(chatId, selectedWords, correctSentence);
+        SentenceCorpus.Sentence sentence = sentenceOpt.get();
+        SentenceGameSession session = new SentenceGameSession(chatId, sentence);
         activeSentenceGames.put(chatId, session);
 
         StringBuilder sb = new StringBuilder();
@@ -707,8 +1161,8 @@ public class TelegramService {
             sb.append("✍️ *用这些词造句:*\n\n");
         }
 
-        List<String> wordList = selectedWords.stream().map(Word::getWord).collect(Collectors.toList());
-        sb.append(String.join(", ", wordList));
+        sb.append(PagePacker.escapeMarkdown(String.join(" / ", sentenceCorpus.shuffledTokens(sentence))));
+        sb.append("\n\n_").append(PagePacker.escapeMarkdown(sentence.translation())).append("_");
 
         if (nativeLang.equals("ru")) {
             sb.append("\n\nНапиши предложение в чат.");
@@ -717,18 +1171,10 @@ public class TelegramService {
         }
 
         sendMessage(chatId, sb.toString());
+        learningEventService.recordShown(chatId, "sentence", null);
         userStates.put(chatId, ConversationState.IN_SENTENCE_GAME);
     }
 
-    private String createSimpleSentence(List<Word> words, String lang) {
-        if ("ru".equalsIgnoreCase(lang) && words.size() >= 3) {
-            return words.get(0).getWord() + " " + words.get(1).getWord() + " " + words.get(2).getWord() + ".";
-        } else if ("zh".equalsIgnoreCase(lang) && words.size() >= 3) {
-            return words.get(0).getWord() + words.get(1).getWord() + words.get(2).getWord() + "。";
-        }
-        return words.stream().map(Word::getWord).collect(Collectors.joining(" ")) + ".";
-    }
-
     private void handleSentenceGameInput(Long chatId, String userSentence) {
         SentenceGameSession session = activeSentenceGames.get(chatId);
         if (session == null) {
@@ -741,13 +1187,18 @@ public class TelegramService {
             return;
         }
 
-        String correctSentence = session.getCorrectSentence();
+        String correctSentence = session.getSentence().text();
 
         Optional<User> userOpt = userRepository.findByChatId(chatId);
         String nativeLang = userOpt.map(User::getNativeLanguage).orElse("ru");
 
         String response;
-        if (userSentence.trim().equalsIgnoreCase(correctSentence.trim())) {
+        boolean isCorrect = sentenceCorpus.isCorrect(session.getSentence(), userSentence);
+        long latencyMs = System.currentTimeMillis() - session.getStartTime();
+        learningEventService.recordAnswered(chatId, "sentence", null,
+                isCorrect ? LearningEvent.Outcome.CORRECT : LearningEvent.Outcome.INCORRECT, latencyMs);
+        learningEventService.recordGameFinished(chatId, "sentence", isCorrect ? 1 : 0, 1, latencyMs);
+        if (isCorrect) {
             if (nativeLang.equals("ru")) {
                 response = "✅ Правильно! Отличное предложение!";
             } else {
@@ -775,13 +1226,11 @@ public class TelegramService {
             return;
         }
         User user = userOpt.get();
-        String level = user.getLevel();
-        String targetLang = user.getTargetLanguage();
+        String nativeLang = user.getNativeLanguage();
 
-        List<Word> allWords = wordRepository.findByLevelAndLang(level, targetLang);
+        DictionaryPageCache.DictionaryPages pages = dictionaryPageCache.getPages(user.getTargetLanguage(), user.getLevel(), nativeLang);
 
-        if (allWords.isEmpty()) {
-            String nativeLang = user.getNativeLanguage();
+        if (pages.pageCount() == 0) {
             String message = nativeLang.equals("ru") ? "😔 Нет слов для этого уровня." : "😔 此级别没有单词。";
             sendMessage(chatId, message);
             showMainMenu(chatId);
@@ -789,8 +1238,7 @@ public class TelegramService {
         }
 
         int currentPage = userDictionaryPage.getOrDefault(chatId, 0);
-        int pageSize = 30;
-        int totalPages = (int) Math.ceil((double) allWords.size() / pageSize);
+        int totalPages = pages.pageCount();
 
         if (currentPage >= totalPages) {
             currentPage = Math.max(0, totalPages - 1);
@@ -801,32 +1249,54 @@ public class TelegramService {
             userDictionaryPage.put(chatId, currentPage);
         }
 
-        int fromIndex = currentPage * pageSize;
-        int toIndex = Math.min(fromIndex + pageSize, allWords.size());
-        List<Word> wordsOnPage = allWords.subList(fromIndex, toIndex);
+        DictionaryPageCache.RenderedPage page = pages.pages().get(currentPage);
+        sendMessageWithInlineKeyboard(chatId, page.text(), page.keyboardJson());
+    }
 
-        StringBuilder sb = new StringBuilder();
-        String nativeLang = user.getNativeLanguage();
+    private void promptSearchQuery(Long chatId) {
+        Optional<User> userOpt = userRepository.findByChatId(chatId);
+        String nativeLang = userOpt.map(User::getNativeLanguage).orElse("ru");
+        String prompt = nativeLang.equals("ru")
+                ? "🔍 Введи слово, транскрипцию или перевод для поиска:"
+                : "🔍 输入要搜索的单词、拼音或翻译：";
+        sendMessage(chatId, prompt);
+        userStates.put(chatId, ConversationState.AWAITING_SEARCH_QUERY);
+    }
 
-        if (nativeLang.equals("ru")) {
-            sb.append("📖 Словарь (").append(currentPage + 1).append("/").append(totalPages).append("):\n\n");
-        } else {
-            sb.append("📖 词典 (").append(currentPage + 1).append("/").append(totalPages).append("):\n\n");
+    private void handleSearchQuery(Long chatId, String query) {
+        Optional<User> userOpt = userRepository.findByChatId(chatId);
+        if (userOpt.isEmpty()) {
+            sendMessage(chatId, "Ошибка: пользователь не найден.");
+            showMainMenu(chatId);
+            return;
         }
+        User user = userOpt.get();
+        String nativeLang = user.getNativeLanguage();
 
-        for (Word w : wordsOnPage) {
-            String wordLine;
-            if (w.getTranscription() != null && !w.getTranscription().isEmpty()) {
-                wordLine = "• " + w.getWord() + " (" + w.getTranscription() + ") — " + w.getTranslation();
-            } else {
-                wordLine = "• " + w.getWord() + " — " + w.getTranslation();
+        List<WordSearchIndex.Match> matches = vocabularyService.getVocabulary()
+                .search(user.getTargetLanguage(), query, SEARCH_RESULT_LIMIT);
+
+        StringBuilder sb = new StringBuilder();
+        if (matches.isEmpty()) {
+            sb.append(nativeLang.equals("ru") ? "😔 Ничего не найдено по запросу «" : "😔 没有找到「")
+                    .append(PagePacker.escapeMarkdown(query))
+                    .append(nativeLang.equals("ru") ? "»." : "」的结果。");
+        } else {
+            sb.append(nativeLang.equals("ru") ? "🔍 *Результаты поиска* «" : "🔍 *搜索结果* 「")
+                    .append(PagePacker.escapeMarkdown(query))
+                    .append(nativeLang.equals("ru") ? "»:\n\n" : "」:\n\n");
+            for (WordSearchIndex.Match match : matches) {
+                Word w = match.word();
+                sb.append("• ").append(PagePacker.escapeMarkdown(w.getWord()));
+                if (w.getTranscription() != null && !w.getTranscription().isEmpty()) {
+                    sb.append(" (").append(PagePacker.escapeMarkdown(w.getTranscription())).append(")");
+                }
+                sb.append(" — ").append(PagePacker.escapeMarkdown(w.getTranslation())).append(" [").append(w.getLevel()).append("]\n");
             }
-            sb.append(wordLine).append("\n");
         }
 
-        InlineKeyboardMarkup keyboard = createDictionaryInlineKeyboard(chatId, currentPage, totalPages, nativeLang);
-
-        sendMessageWithInlineKeyboard(chatId, sb.toString(), keyboard);
+        sendMessage(chatId, sb.toString());
+        userStates.put(chatId, ConversationState.IN_MENU);
     }
 
     private void sendMessageWithInlineKeyboard(Long chatId, String text, InlineKeyboardMarkup keyboard) {
@@ -837,44 +1307,24 @@ public class TelegramService {
             request.put("parse_mode", "Markdown");
             request.put("reply_markup", keyboard);
 
-            RestTemplate restTemplate = new RestTemplate();
-            restTemplate.postForObject(SEND_MESSAGE_URL + BOT_TOKEN + "/sendMessage", request, String.class);
+            telegramApiClient.call("sendMessage", request);
         } catch (Exception e) {
             e.printStackTrace();
         }
     }
 
-    private InlineKeyboardMarkup createDictionaryInlineKeyboard(Long chatId, int currentPage, int totalPages, String nativeLang) {
-        InlineKeyboardMarkup keyboard = new InlineKeyboardMarkup();
-        List<List<InlineKeyboardButton>> rows = new ArrayList<>();
-
-        List<InlineKeyboardButton> navRow = new ArrayList<>();
-        if (currentPage > 0) {
-            InlineKeyboardButton backButton = new InlineKeyboardButton();
-            backButton.setText(nativeLang.equals("ru") ? "⬅️ Назад" : "⬅️ 上一页");
-            backButton.setCallbackData("dict_prev:" + (currentPage - 1));
-            navRow.add(backButton);
-        }
-        if (currentPage < totalPages - 1) {
-            InlineKeyboardButton nextButton = new InlineKeyboardButton();
-            nextButton.setText(nativeLang.equals("ru") ? "Вперёд ➡️" : "下一页 ➡️");
-            nextButton.setCallbackData("dict_next:" + (currentPage + 1));
-            navRow.add(nextButton);
-        }
+    private void sendMessageWithInlineKeyboard(Long chatId, String text, String replyMarkupJson) {
+        try {
+            Map<String, Object> request = new HashMap<>();
+            request.put("chat_id", chatId);
+            request.put("text", text);
+            request.put("parse_mode", "Markdown");
+            request.put("reply_markup", replyMarkupJson);
 
-        if (!navRow.isEmpty()) {
-            rows.add(navRow);
+            telegramApiClient.call("sendMessage", request);
+        } catch (Exception e) {
+            e.printStackTrace();
         }
-
-        List<InlineKeyboardButton> menuRow = new ArrayList<>();
-        InlineKeyboardButton menuButton = new InlineKeyboardButton();
-        menuButton.setText(nativeLang.equals("ru") ? "🔙 Главное меню" : "🔙 主菜单");
-        menuButton.setCallbackData("main_menu");
-        menuRow.add(menuButton);
-        rows.add(menuRow);
-
-        keyboard.setKeyboard(rows);
-        return keyboard;
     }
 
     private void editMessageWithDictionary(Long chatId, Integer messageId) {
@@ -882,54 +1332,70 @@ public class TelegramService {
         if (userOpt.isEmpty()) return;
 
         User user = userOpt.get();
-        String level = user.getLevel();
-        String targetLang = user.getTargetLanguage();
-
-        List<Word> allWords = wordRepository.findByLevelAndLang(level, targetLang);
-        int pageSize = 30;
-        int totalPages = (int) Math.ceil((double) allWords.size() / pageSize);
-
         int currentPage = userDictionaryPage.getOrDefault(chatId, 0);
+        editMessageWithDictionaryPage(chatId, messageId, user.getTargetLanguage(), user.getLevel(), user.getNativeLanguage(), currentPage);
+    }
 
-        int fromIndex = currentPage * pageSize;
-        int toIndex = Math.min(fromIndex + pageSize, allWords.size());
-        List<Word> wordsOnPage = allWords.subList(fromIndex, toIndex);
+    private void editMessageWithDictionaryPage(Long chatId, Integer messageId, String targetLang, String level, String nativeLang, int page) {
+        DictionaryPageCache.DictionaryPages pages = dictionaryPageCache.getPages(targetLang, level, nativeLang);
+        if (page < 0 || page >= pages.pageCount()) return;
 
-        StringBuilder sb = new StringBuilder();
-        String nativeLang = user.getNativeLanguage();
+        DictionaryPageCache.RenderedPage rendered = pages.pages().get(page);
+        editMessageText(chatId, messageId, rendered.text(), rendered.keyboardJson());
+    }
 
-        if (nativeLang.equals("ru")) {
-            sb.append("📖 Словарь (").append(currentPage + 1).append("/").append(totalPages).append("):\n\n");
-        } else {
-            sb.append("📖 词典 (").append(currentPage + 1).append("/").append(totalPages).append("):\n\n");
-        }
+    private void editMessageText(Long chatId, Integer messageId, String text, InlineKeyboardMarkup keyboard) {
+        try {
+            Map<String, Object> request = new HashMap<>();
+            request.put("chat_id", chatId);
+            request.put("message_id", messageId);
+            request.put("text", text);
+            request.put("parse_mode", "Markdown");
+            request.put("reply_markup", keyboard);
 
-        for (Word w : wordsOnPage) {
-            String wordLine;
-            if (w.getTranscription() != null && !w.getTranscription().isEmpty()) {
-                wordLine = "• " + w.getWord() + " (" + w.getTranscription() + ") — " + w.getTranslation();
-            } else {
-                wordLine = "• " + w.getWord() + " — " + w.getTranslation();
-            }
-            sb.append(wordLine).append("\n");
+            telegramApiClient.call("editMessageText", request);
+        } catch (Exception e) {
+            e.printStackTrace();
         }
-
-        InlineKeyboardMarkup keyboard = createDictionaryInlineKeyboard(chatId, currentPage, totalPages, nativeLang);
-
-        editMessageText(chatId, messageId, sb.toString(), keyboard);
     }
 
-    private void editMessageText(Long chatId, Integer messageId, String text, InlineKeyboardMarkup keyboard) {
+    private void editMessageText(Long chatId, Integer messageId, String text, String replyMarkupJson) {
         try {
             Map<String, Object> request = new HashMap<>();
             request.put("chat_id", chatId);
             request.put("message_id", messageId);
             request.put("text", text);
             request.put("parse_mode", "Markdown");
-            request.put("reply_markup", keyboard);
+            request.put("reply_markup", replyMarkupJson);
 
-            RestTemplate restTemplate = new RestTemplate();
-            restTemplate.postForObject(SEND_MESSAGE_URL + BOT_TOKEN + "/editMessageText", request, String.class);
+            telegramApiClient.call("editMessageText", request);
+        } catch (Exception e) {
+            e.printStackTrace();
+        }
+    }
+
+    private void answerCallbackQuery(String callbackQueryId, String text) {
+        try {
+            Map<String, Object> request = new HashMap<>();
+            request.put("callback_query_id", callbackQueryId);
+            if (text != null) {
+                request.put("text", text);
+            }
+
+            telegramApiClient.call("answerCallbackQuery", request);
+        } catch (Exception e) {
+            e.printStackTrace();
+        }
+    }
+
+    private void answerInlineQuery(String inlineQueryId, String resultsJson) {
+        try {
+            Map<String, Object> request = new HashMap<>();
+            request.put("inline_query_id", inlineQueryId);
+            request.put("results", resultsJson);
+            request.put("cache_time", inlineQueryCacheTime);
+
+            telegramApiClient.call("answerInlineQuery", request);
         } catch (Exception e) {
             e.printStackTrace();
         }
@@ -953,8 +1419,8 @@ public class TelegramService {
             showDictionary(chatId);
         } else if (text.equals(nativeLang.equals("ru") ? "Вперёд ➡️" : "下一页 ➡️")) {
             int currentPage = userDictionaryPage.getOrDefault(chatId, 0);
-            int totalPages = (int) Math.ceil((double) wordRepository.findByLevelAndLang(
-                userOpt.get().getLevel(), userOpt.get().getTargetLanguage()).size() / 30.0);
+            int totalPages = dictionaryPageCache.pageCount(
+                userOpt.get().getTargetLanguage(), userOpt.get().getLevel(), nativeLang);
             if (currentPage < totalPages - 1) {
                 userDictionaryPage.put(chatId, currentPage + 1);
             }
@@ -1005,45 +1471,12 @@ public class TelegramService {
             return;
         }
 
-        int currentPage = userDictionaryPage.getOrDefault(chatId, 0);
-        int pageSize = 30;
-        int totalPages = (int) Math.ceil((double) allUserWords.size() / pageSize);
-
-        if (currentPage >= totalPages) {
-            currentPage = Math.max(0, totalPages - 1);
-            userDictionaryPage.put(chatId, currentPage);
-        }
-        if (currentPage < 0) {
-            currentPage = 0;
-            userDictionaryPage.put(chatId, currentPage);
-        }
-
-        int fromIndex = currentPage * pageSize;
-        int toIndex = Math.min(fromIndex + pageSize, allUserWords.size());
-        List<UserWord> wordsOnPage = allUserWords.subList(fromIndex, toIndex);
-
-        StringBuilder sb = new StringBuilder();
         String nativeLang = userOpt.get().getNativeLanguage();
+        MyWordsPage page = renderMyWordsPage(allUserWords, nativeLang, userDictionaryPage.getOrDefault(chatId, 0));
+        userDictionaryPage.put(chatId, page.page());
 
-        if (nativeLang.equals("ru")) {
-            sb.append("🔁 *Твои слова (Не знаю)* (").append(currentPage + 1).append("/").append(totalPages).append("):\n\n");
-        } else {
-            sb.append("🔁 *你的单词 (不认识)* (").append(currentPage + 1).append("/").append(totalPages).append("):\n\n");
-        }
-
-        for (int i = 0; i < wordsOnPage.size(); i++) {
-            UserWord uw = wordsOnPage.get(i);
-            String wordLine;
-            if (uw.getWord().getTranscription() != null && !uw.getWord().getTranscription().isEmpty()) {
-                wordLine = (currentPage * pageSize + i + 1) + ". " + uw.getWord().getWord() + " (" + uw.getWord().getTranscription() + ") — " + uw.getWord().getTranslation();
-            } else {
-                wordLine = (currentPage * pageSize + i + 1) + ". " + uw.getWord().getWord() + " — " + uw.getWord().getTranslation();
-            }
-            sb.append(wordLine).append("\n");
-        }
-
-        InlineKeyboardMarkup keyboard = createMyWordsInlineKeyboard(chatId, currentPage, totalPages, nativeLang);
-        sendMessageWithInlineKeyboard(chatId, sb.toString(), keyboard);
+        InlineKeyboardMarkup keyboard = createMyWordsInlineKeyboard(chatId, page.page(), page.totalPages(), nativeLang);
+        sendMessageWithInlineKeyboard(chatId, page.text(), keyboard);
     }
 
     private InlineKeyboardMarkup createMyWordsInlineKeyboard(Long chatId, int currentPage, int totalPages, String nativeLang) {
@@ -1068,6 +1501,14 @@ public class TelegramService {
             rows.add(navRow);
         }
 
+        InlineKeyboardButton exportButton = new InlineKeyboardButton();
+        exportButton.setText(nativeLang.equals("ru") ? "📤 Экспорт" : "📤 导出");
+        exportButton.setCallbackData("mywords_export");
+        InlineKeyboardButton importButton = new InlineKeyboardButton();
+        importButton.setText(nativeLang.equals("ru") ? "📥 Импорт" : "📥 导入");
+        importButton.setCallbackData("mywords_import");
+        rows.add(List.of(exportButton, importButton));
+
         List<InlineKeyboardButton> menuRow = new ArrayList<>();
         InlineKeyboardButton menuButton = new InlineKeyboardButton();
         menuButton.setText(nativeLang.equals("ru") ? "🔙 Главное меню" : "🔙 主菜单");
@@ -1100,6 +1541,107 @@ public class TelegramService {
         }
     }
 
+    private void reloadVocabulary(Long chatId, boolean fromCsv) {
+        long start = System.currentTimeMillis();
+        StringBuilder sb = new StringBuilder();
+        try {
+            if (fromCsv) {
+                VocabularyCsvImporter.Result imported = vocabularyCsvImporter.importFiles();
+                sb.append("CSV: ").append(imported.files()).append(" files, ")
+                        .append(imported.inserted()).append(" inserted, ")
+                        .append(imported.updated()).append(" updated\n");
+            }
+            VocabularyDiff diff = vocabularyService.reload();
+            sb.append("🔄 Vocabulary v").append(diff.fromVersion()).append(" → v").append(diff.toVersion())
+                    .append(" (").append(diff.total()).append(" words, ")
+                    .append(System.currentTimeMillis() - start).append(" ms)\n")
+                    .append("+").append(diff.added().size())
+                    .append(" ~").append(diff.changed().size())
+                    .append(" −").append(diff.removed().size()).append("\n");
+            appendDiffSample(sb, "+", diff.added());
+            appendDiffSample(sb, "~", diff.changed());
+            appendDiffSample(sb, "−", diff.removed());
+        } catch (Exception e) {
+            e.printStackTrace();
+            sb.append("❌ Vocabulary reload failed: ").append(e.getMessage());
+        }
+        sendMessage(chatId, PagePacker.escapeMarkdown(sb.toString()));
+    }
+
+    private static void appendDiffSample(StringBuilder sb, String marker, List<Word> words) {
+        for (int i = 0; i < Math.min(words.size(), DIFF_SAMPLE_SIZE); i++) {
+            Word word = words.get(i);
+            sb.append(marker).append(" ").append(word.getWord()).append(" — ").append(word.getTranslation())
+                    .append(" [").append(word.getLang()).append(" ").append(word.getLevel()).append("]\n");
+        }
+        if (words.size() > DIFF_SAMPLE_SIZE) {
+            sb.append(marker).append(" …\n");
+        }
+    }
+
+    private void exportMyWords(Long chatId) {
+        Optional<User> userOpt = userRepository.findByChatId(chatId);
+        String nativeLang = userOpt.map(User::getNativeLanguage).orElse("ru");
+        boolean ru = nativeLang.equals("ru");
+
+        if (!userWordRepository.existsByUserChatId(chatId)) {
+            sendMessage(chatId, ru ? "📭 У тебя пока нет сохранённых слов." : "📭 你还没有保存的单词。");
+            return;
+        }
+        try {
+            wordListTransferService.export(chatId, ru ? "🔁 Мои слова (можно импортировать в Anki)" : "🔁 我的单词（可导入 Anki）");
+        } catch (Exception e) {
+            e.printStackTrace();
+            sendMessage(chatId, ru ? "❌ Не удалось выгрузить слова." : "❌ 导出单词失败。");
+        }
+    }
+
+    private void promptImportFile(Long chatId) {
+        Optional<User> userOpt = userRepository.findByChatId(chatId);
+        String nativeLang = userOpt.map(User::getNativeLanguage).orElse("ru");
+
+        String text;
+        List<List<String>> buttons;
+        if (nativeLang.equals("ru")) {
+            text = "📥 Отправь файл .tsv или .csv: по одному слову в строке, слово в первой колонке.\n" +
+                   "Подходит и файл, выгруженный через 📤 Экспорт.";
+            buttons = List.of(List.of("⬅️ Назад в меню"));
+        } else {
+            text = "📥 请发送 .tsv 或 .csv 文件：每行一个单词，单词在第一列。\n" +
+                   "也可以使用通过 📤 导出 得到的文件。";
+            buttons = List.of(List.of("⬅️ 返回菜单"));
+        }
+        sendMessageWithButtons(chatId, text, buttons);
+        userStates.put(chatId, ConversationState.AWAITING_IMPORT_FILE);
+    }
+
+    private void handleImportFile(Long chatId, Map<String, Object> document) {
+        Optional<User> userOpt = userRepository.findByChatId(chatId);
+        if (userOpt.isEmpty()) return;
+        User user = userOpt.get();
+        boolean ru = user.getNativeLanguage().equals("ru");
+
+        Number fileSize = (Number) document.get("file_size");
+        if (fileSize != null && fileSize.longValue() > MAX_IMPORT_FILE_BYTES) {
+            sendMessage(chatId, ru ? "❌ Файл слишком большой (максимум 20 МБ)." : "❌ 文件太大（最多 20 MB）。");
+            return;
+        }
+
+        try {
+            WordListTransferService.ImportResult result =
+                    wordListTransferService.importWords(chatId, (String) document.get("file_id"), user.getTargetLanguage());
+            sendMessage(chatId, ru
+                    ? "✅ Импорт завершён: добавлено " + result.added() + ", не найдено в словаре " + result.unknown()
+                        + " (строк: " + result.lines() + ")."
+                    : "✅ 导入完成：新增 " + result.added() + " 个，词典中未找到 " + result.unknown()
+                        + " 个（共 " + result.lines() + " 行）。");
+        } catch (Exception e) {
+            e.printStackTrace();
+            sendMessage(chatId, ru ? "❌ Не удалось прочитать файл." : "❌ 无法读取文件。");
+        }
+        showMainMenu(chatId);
+    }
+
     private void handleDeleteWord(Long chatId, String buttonCommand) {
         Map<String, Long> deleteMap = userWordDeleteMap.get(chatId);
         if (deleteMap == null || !deleteMap.containsKey(buttonCommand)) {
@@ -1142,6 +1684,101 @@ public class TelegramService {
         showMyWords(chatId);
     }
 
+    private void showStatistics(Long chatId) {
+        Optional<User> userOpt = userRepository.findByChatId(chatId);
+        String nativeLang = userOpt.map(User::getNativeLanguage).orElse("ru");
+        UserStatsService.Snapshot stats = userStatsService.getSnapshot(chatId);
+
+        StringBuilder sb = new StringBuilder();
+        if (nativeLang.equals("ru")) {
+            sb.append("📊 *Твоя статистика:*\n\n")
+                    .append("Выучено слов: ").append(stats.wordsLearned()).append("\n")
+                    .append("Точность: ").append(stats.accuracyPercent()).append("% (")
+                    .append(stats.correct()).append("/").append(stats.answered()).append(")\n")
+                    .append("Серия: ").append(stats.currentStreak()).append(" дн. (лучшая: ").append(stats.bestStreak()).append(")\n");
+        } else {
+            sb.append("📊 *你的统计:*\n\n")
+                    .append("已学单词: ").append(stats.wordsLearned()).append("\n")
+                    .append("正确率: ").append(stats.accuracyPercent()).append("% (")
+                    .append(stats.correct()).append("/").append(stats.answered()).append(")\n")
+                    .append("连续学习: ").append(stats.currentStreak()).append(" 天 (最佳: ").append(stats.bestStreak()).append(")\n");
+        }
+
+        if (!stats.learnedByLevel().isEmpty()) {
+            sb.append(nativeLang.equals("ru") ? "\nПо уровням:\n" : "\n按级别:\n");
+            for (Map.Entry<String, Integer> level : stats.learnedByLevel().entrySet()) {
+                String[] parts = level.getKey().split(":");
+                String langName = "ru".equals(parts[0]) ? "🇷🇺" : "🇨🇳";
+                long size = userStatsService.getLevelSize(level.getKey());
+                int percent = size == 0 ? 0 : (int) (level.getValue() * 100 / size);
+                sb.append(langName).append(" ").append(parts[1]).append(": ")
+                        .append(level.getValue()).append("/").append(size).append(" (").append(percent).append("%)\n");
+            }
+        }
+
+        sendMessage(chatId, sb.toString());
+    }
+
+    private void showLeaderboard(Long chatId) {
+        Optional<User> userOpt = userRepository.findByChatId(chatId);
+        if (userOpt.isEmpty()) return;
+        User user = userOpt.get();
+        String nativeLang = user.getNativeLanguage();
+        boolean ru = nativeLang.equals("ru");
+
+        Leaderboard weekly = leaderboardService.weekly(user.getTargetLanguage(), user.getLevel());
+        Leaderboard allTime = leaderboardService.allTime(user.getTargetLanguage(), user.getLevel());
+        List<Leaderboard.Ranked> weeklyTop = weekly.top(LEADERBOARD_SIZE);
+        List<Leaderboard.Ranked> allTimeTop = allTime.top(LEADERBOARD_SIZE);
+
+        Set<Long> ids = new HashSet<>();
+        weeklyTop.forEach(r -> ids.add(r.chatId()));
+        allTimeTop.forEach(r -> ids.add(r.chatId()));
+        Map<Long, String> names = new HashMap<>();
+        for (User u : userRepository.findAllById(ids)) {
+            names.put(u.getChatId(), u.getFirstName());
+        }
+
+        StringBuilder sb = new StringBuilder();
+        sb.append(ru ? "🏆 *Рейтинг* (" : "🏆 *排行榜* (").append(user.getTargetLanguage().equals("zh") ? "🇨🇳 " : "🇷🇺 ")
+                .append(user.getLevel()).append(")\n\n");
+        sb.append(ru ? "*За неделю:*\n" : "*本周:*\n");
+        appendLeaderboard(sb, weekly, weeklyTop, names, chatId, ru);
+        sb.append(ru ? "\n*За всё время:*\n" : "\n*总榜:*\n");
+        appendLeaderboard(sb, allTime, allTimeTop, names, chatId, ru);
+
+        sendMessage(chatId, sb.toString());
+    }
+
+    private void appendLeaderboard(StringBuilder sb, Leaderboard board, List<Leaderboard.Ranked> top,
+                                   Map<Long, String> names, Long chatId, boolean ru) {
+        if (top.isEmpty()) {
+            sb.append(ru ? "Пока никого нет.\n" : "暂时没有人。\n");
+            return;
+        }
+        int rank = 0;
+        int previousScore = -1;
+        for (int i = 0; i < top.size(); i++) {
+            Leaderboard.Ranked ranked = top.get(i);
+            if (ranked.score() != previousScore) {
+                rank = i + 1;
+                previousScore = ranked.score();
+            }
+            String name = names.getOrDefault(ranked.chatId(), "?");
+            sb.append(rank).append(". ").append(PagePacker.escapeMarkdown(name == null ? "?" : name))
+                    .append(" — ").append(ranked.score());
+            if (ranked.chatId() == chatId) {
+                sb.append(ru ? " ⬅️ ты" : " ⬅️ 你");
+            }
+            sb.append("\n");
+        }
+        int myRank = board.rank(chatId);
+        if (myRank > LEADERBOARD_SIZE) {
+            sb.append(ru ? "…\nТвоё место: " : "…\n你的名次: ").append(myRank).append(" / ").append(board.size())
+                    .append(" (").append(board.score(chatId)).append(")\n");
+        }
+    }
+
     private void showSettings(Long chatId) {
         Optional<User> userOpt = userRepository.findByChatId(chatId);
         if (userOpt.isPresent()) {
@@ -1188,10 +1825,15 @@ public class TelegramService {
         }
     }
 
+    private enum FlashcardMode {
+        TYPING, MULTIPLE_CHOICE, SELF_CHECK, REVERSE
+    }
+
     private enum ConversationState {
         START, AWAITING_NATIVE_LANG, AWAITING_TARGET_LANG, AWAITING_LEVEL,
         IN_MENU, IN_MY_WORDS, IN_SENTENCE_GAME, IN_SETTINGS, IN_DICTIONARY,
-        AWAITING_NEW_NATIVE_LANG, AWAITING_NEW_TARGET_LANG, AWAITING_NEW_LEVEL
+        AWAITING_NEW_NATIVE_LANG, AWAITING_NEW_TARGET_LANG, AWAITING_NEW_LEVEL,
+        AWAITING_SEARCH_QUERY, AWAITING_IMPORT_FILE
     }
 
     private void handleSettingsCommand(Long chatId, String command) {
@@ -1369,6 +2011,150 @@ public class TelegramService {
         }
     }
 
+    /**
+     * Saves the conversation state and running games of every chat, after the update dispatcher
+     * has drained, so the next instance can continue them.
+     */
+    @PreDestroy
+    void snapshotSessions() {
+        Set<Long> chatIds = new HashSet<>(userStates.keySet());
+        chatIds.addAll(activeFlashcardGames.keySet());
+        chatIds.addAll(activeSentenceGames.keySet());
+        chatIds.addAll(flashcardModes.keySet());
+
+        Map<Long, byte[]> sessions = new HashMap<>();
+        for (Long chatId : chatIds) {
+            try {
+                sessions.put(chatId, writeSession(chatId));
+            } catch (IOException e) {
+                e.printStackTrace();
+            }
+        }
+        sessionSnapshotService.saveAll(sessions);
+    }
+
+    private void restoreSession(Long chatId) {
+        Optional<byte[]> snapshot = sessionSnapshotService.take(chatId);
+        if (snapshot.isEmpty()) {
+            return;
+        }
+        try {
+            readSession(chatId, new DataInputStream(new ByteArrayInputStream(snapshot.get())));
+        } catch (IOException | RuntimeException e) {
+            e.printStackTrace();
+        }
+    }
+
+    private byte[] writeSession(Long chatId) throws IOException {
+        ByteArrayOutputStream bytes = new ByteArrayOutputStream(64);
+        DataOutputStream out = new DataOutputStream(bytes);
+        out.writeByte(SESSION_SNAPSHOT_VERSION);
+        ConversationState state = userStates.get(chatId);
+        out.writeUTF(state == null ? "" : state.name());
+        FlashcardMode mode = flashcardModes.get(chatId);
+        out.writeUTF(mode == null ? "" : mode.name());
+        out.writeInt(userDictionaryPage.getOrDefault(chatId, 0));
+
+        FlashcardGameSession flashcards = activeFlashcardGames.get(chatId);
+        out.writeBoolean(flashcards != null);
+        if (flashcards != null) {
+            out.writeUTF(flashcards.getGameType());
+            out.writeUTF(flashcards.getMode().name());
+            out.writeUTF(flashcards.getNativeLang());
+            out.writeInt(flashcards.getCurrentIndex());
+            out.writeInt(flashcards.getCorrectCount());
+            out.writeInt(flashcards.getDontKnowCount());
+            out.writeLong(flashcards.getStartTime());
+            out.writeInt(flashcards.getWords().size());
+            for (Word word : flashcards.getWords()) {
+                out.writeLong(word.getId());
+            }
+        }
+
+        SentenceGameSession sentenceGame = activeSentenceGames.get(chatId);
+        out.writeBoolean(sentenceGame != null);
+        if (sentenceGame != null) {
+            SentenceCorpus.Sentence sentence = sentenceGame.getSentence();
+            out.writeUTF(sentence.text());
+            writeStrings(out, sentence.tokens());
+            writeStrings(out, sentence.words());
+            out.writeUTF(sentence.translation());
+            out.writeUTF(sentence.lang());
+            out.writeLong(sentenceGame.getStartTime());
+        }
+        return bytes.toByteArray();
+    }
+
+    private void readSession(Long chatId, DataInputStream in) throws IOException {
+        if (in.readByte() != SESSION_SNAPSHOT_VERSION) {
+            return;
+        }
+        String state = in.readUTF();
+        String mode = in.readUTF();
+        int dictionaryPage = in.readInt();
+
+        FlashcardGameSession flashcards = null;
+        if (in.readBoolean()) {
+            String gameType = in.readUTF();
+            FlashcardMode gameMode = FlashcardMode.valueOf(in.readUTF());
+            String nativeLang = in.readUTF();
+            int currentIndex = in.readInt();
+            int correctCount = in.readInt();
+            int dontKnowCount = in.readInt();
+            long startTime = in.readLong();
+            List<Long> wordIds = new ArrayList<>();
+            for (int i = in.readInt(); i > 0; i--) {
+                wordIds.add(in.readLong());
+            }
+            Map<Long, Word> byId = wordRepository.findAllById(wordIds).stream()
+                    .collect(Collectors.toMap(Word::getId, w -> w));
+            if (byId.size() == wordIds.size() && currentIndex < wordIds.size()) {
+                List<Word> words = wordIds.stream().map(byId::get).toList();
+                flashcards = new FlashcardGameSession(chatId, gameType, words, currentIndex, gameMode, nativeLang,
+                        correctCount, dontKnowCount, startTime);
+            }
+        }
+
+        SentenceGameSession sentenceGame = null;
+        if (in.readBoolean()) {
+            SentenceCorpus.Sentence sentence = new SentenceCorpus.Sentence(in.readUTF(), readStrings(in),
+                    readStrings(in), in.readUTF(), in.readUTF());
+            sentenceGame = new SentenceGameSession(chatId, sentence, in.readLong());
+        }
+
+        if (!state.isEmpty()) {
+            userStates.put(chatId, ConversationState.valueOf(state));
+        }
+        if (!mode.isEmpty()) {
+            flashcardModes.put(chatId, FlashcardMode.valueOf(mode));
+        }
+        if (dictionaryPage != 0) {
+            userDictionaryPage.put(chatId, dictionaryPage);
+        }
+        if (flashcards != null) {
+            activeFlashcardGames.put(chatId, flashcards);
+        }
+        if (sentenceGame != null) {
+            activeSentenceGames.put(chatId, sentenceGame);
+        }
+    }
+
+    private static void writeStrings(DataOutputStream out, List<String> values) throws IOException {
+        out.writeInt(values.size());
+        for (String value : values) {
+            out.writeUTF(value);
+        }
+    }
+
+    private static List<String> readStrings(DataInputStream in) throws IOException {
+        int size = in.readInt();
+        List<String> values = new ArrayList<>(size);
+        for (int i = 0; i < size; i++) {
+            values.add(in.readUTF());
+        }
+        return values;
+    }
+
     private static class FlashcardGameSession {
         private final Long userId;
         private final String gameType;
@@ -1377,13 +2163,28 @@ public class TelegramService {
         private int correctCount = 0;
         private int dontKnowCount = 0;
         private final long startTime;
+        private long cardShownAt;
+        private final FlashcardMode mode;
+        private final String nativeLang;
 
-        public FlashcardGameSession(Long userId, String gameType, List<Word> words, int currentIndex) {
+        public FlashcardGameSession(Long userId, String gameType, List<Word> words, int currentIndex,
+                                    FlashcardMode mode, String nativeLang) {
+            this(userId, gameType, words, currentIndex, mode, nativeLang, 0, 0, System.currentTimeMillis());
+        }
+
+        public FlashcardGameSession(Long userId, String gameType, List<Word> words, int currentIndex,
+                                    FlashcardMode mode, String nativeLang, int correctCount, int dontKnowCount,
+                                    long startTime) {
             this.userId = userId;
             this.gameType = gameType;
             this.words = new ArrayList<>(words);
             this.currentIndex = currentIndex;
-            this.startTime = System.currentTimeMillis();
+            this.mode = mode;
+            this.nativeLang = nativeLang;
+            this.correctCount = correctCount;
+            this.dontKnowCount = dontKnowCount;
+            this.startTime = startTime;
+            this.cardShownAt = System.currentTimeMillis();
         }
 
         public Long getUserId() { return userId; }
@@ -1399,21 +2200,31 @@ public class TelegramService {
         public void incrementDontKnowCount() { this.dontKnowCount++; }
 
         public long getStartTime() { return startTime; }
+
+        public long getCardShownAt() { return cardShownAt; }
+        public void markCardShown() { this.cardShownAt = System.currentTimeMillis(); }
+
+        public FlashcardMode getMode() { return mode; }
+        public String getNativeLang() { return nativeLang; }
     }
 
     private static class SentenceGameSession {
         private final Long userId;
-        private final List<Word> words;
-        private final String correctSentence;
+        private final SentenceCorpus.Sentence sentence;
+        private final long startTime;
+
+        public SentenceGameSession(Long userId, SentenceCorpus.Sentence sentence) {
+            this(userId, sentence, System.currentTimeMillis());
+        }
 
-        public SentenceGameSession(Long userId, List<Word> words, String correctSentence) {
+        public SentenceGameSession(Long userId, SentenceCorpus.Sentence sentence, long startTime) {
             this.userId = userId;
-            this.words = new ArrayList<>(words);
-            this.correctSentence = correctSentence;
+            this.sentence = sentence;
+            this.startTime = startTime;
         }
 
         public Long getUserId() { return userId; }
-        public List<Word> getWords() { return words; }
-        public String getCorrectSentence() { return correctSentence; }
+        public SentenceCorpus.Sentence getSentence() { return sentence; }
+        public long getStartTime() { return startTime; }
     }
 }
\ No newline at end of file
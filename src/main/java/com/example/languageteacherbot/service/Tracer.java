@@ -0,0 +1,136 @@
+package com.example.languageteacherbot.service;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Per-update span tracing. A trace is bound to the worker thread handling one update; spans opened
+ * while it is active are recorded with their nesting, and updates slower than
+ * {@code tracing.slow-update-ms} are logged with the whole breakdown. Outside a trace, or for
+ * updates not picked by {@code tracing.sample-rate}, {@link #span} returns a shared no-op; slow
+ * updates are still logged then, with their total time only.
+ */
+@Component
+public class Tracer {
+
+    private static final Logger log = LoggerFactory.getLogger(Tracer.class);
+
+    public interface Span extends AutoCloseable {
+        @Override
+        void close();
+    }
+
+    private static final Span NOOP = () -> { };
+
+    @Value("${tracing.sample-rate:0.01}")
+    private double sampleRate;
+
+    @Value("${tracing.slow-update-ms:1000}")
+    private long slowUpdateMs;
+
+    private final ThreadLocal<Trace> current = new ThreadLocal<>();
+
+    /**
+     * Starts the trace of an update on the current thread. {@code receivedAt} and {@code enqueuedAt}
+     * are {@link System#nanoTime()} readings taken when the request arrived and when the update was
+     * queued; either may be 0 if unknown.
+     */
+    public void begin(Object updateId, Long chatId, long receivedAt, long enqueuedAt) {
+        boolean sampled = sampleRate >= 1.0 || (sampleRate > 0 && ThreadLocalRandom.current().nextDouble() < sampleRate);
+        long now = System.nanoTime();
+        Trace trace = new Trace(updateId, chatId, receivedAt > 0 ? receivedAt : now, sampled);
+        if (sampled && receivedAt > 0 && enqueuedAt > 0) {
+            trace.record("ingress", receivedAt, enqueuedAt - receivedAt);
+        }
+        if (sampled && enqueuedAt > 0) {
+            trace.record("queue", enqueuedAt, now - enqueuedAt);
+        }
+        current.set(trace);
+    }
+
+    public Span span(String kind, String name) {
+        Trace trace = current.get();
+        if (trace == null || !trace.sampled) {
+            return NOOP;
+        }
+        return trace.open(kind + " " + name);
+    }
+
+    public void end() {
+        Trace trace = current.get();
+        if (trace == null) {
+            return;
+        }
+        current.remove();
+        long totalMs = TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - trace.start);
+        if (totalMs >= slowUpdateMs) {
+            log.warn("Slow update {} (chat {}): {} ms{}", trace.updateId, trace.chatId, totalMs, trace.breakdown());
+        } else if (log.isDebugEnabled() && trace.sampled) {
+            log.debug("Update {} (chat {}): {} ms{}", trace.updateId, trace.chatId, totalMs, trace.breakdown());
+        }
+    }
+
+    private static final class Trace {
+        private final Object updateId;
+        private final Long chatId;
+        private final long start;
+        private final boolean sampled;
+        private final List<Record> records = new ArrayList<>();
+        private int depth;
+
+        Trace(Object updateId, Long chatId, long start, boolean sampled) {
+            this.updateId = updateId;
+            this.chatId = chatId;
+            this.start = start;
+            this.sampled = sampled;
+        }
+
+        void record(String name, long startedAt, long duration) {
+            Record record = new Record(name, depth, startedAt);
+            record.duration = duration;
+            records.add(record);
+        }
+
+        Span open(String name) {
+            Record record = new Record(name, depth++, System.nanoTime());
+            records.add(record);
+            return () -> {
+                record.duration = System.nanoTime() - record.startedAt;
+                depth--;
+            };
+        }
+
+        String breakdown() {
+            if (!sampled) {
+                return " (not sampled)";
+            }
+            StringBuilder sb = new StringBuilder();
+            for (Record record : records) {
+                sb.append("\n  ").append("  ".repeat(record.depth)).append(record.name).append(' ')
+                        .append(TimeUnit.NANOSECONDS.toMillis(record.duration)).append(" ms @+")
+                        .append(TimeUnit.NANOSECONDS.toMillis(record.startedAt - start));
+            }
+            return sb.toString();
+        }
+    }
+
+    private static final class Record {
+        private final String name;
+        private final int depth;
+        private final long startedAt;
+        private long duration;
+
+        Record(String name, int depth, long startedAt) {
+            this.name = name;
+            this.depth = depth;
+            this.startedAt = startedAt;
+        }
+    }
+}
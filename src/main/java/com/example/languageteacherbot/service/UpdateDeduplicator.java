@@ -0,0 +1,53 @@
+package com.example.languageteacherbot.service;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicLongArray;
+
+/**
+ * Remembers the most recent update ids in a fixed ring of slots indexed by {@code update_id & mask}.
+ * A slot only ever moves forward to a larger id, so an id is a duplicate if its slot already holds
+ * it, and too old to tell apart from a redelivery if its slot holds a newer one.
+ */
+@Component
+public class UpdateDeduplicator {
+
+    private static final Logger log = LoggerFactory.getLogger(UpdateDeduplicator.class);
+
+    private final AtomicLongArray slots;
+    private final int mask;
+    private final AtomicLong duplicatesDropped = new AtomicLong();
+
+    public UpdateDeduplicator(@Value("${updates.dedup-window:4096}") int window) {
+        int size = Integer.highestOneBit(Math.max(2, window - 1)) << 1;
+        this.slots = new AtomicLongArray(size);
+        this.mask = size - 1;
+    }
+
+    /**
+     * Returns {@code true} the first time an update id is seen and {@code false} for repeats.
+     */
+    public boolean markSeen(long updateId) {
+        int index = (int) (updateId & mask);
+        long stored = updateId + 1;
+        while (true) {
+            long current = slots.get(index);
+            if (current >= stored) {
+                long dropped = duplicatesDropped.incrementAndGet();
+                log.debug("Dropped duplicate update {} ({} so far)", updateId, dropped);
+                return false;
+            }
+            if (slots.compareAndSet(index, current, stored)) {
+                return true;
+            }
+        }
+    }
+
+    public long getDuplicatesDropped() {
+        return duplicatesDropped.get();
+    }
+}
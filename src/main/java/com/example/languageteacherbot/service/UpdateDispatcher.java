@@ -0,0 +1,279 @@
+package com.example.languageteacherbot.service;
+
+import jakarta.annotation.PreDestroy;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Service;
+
+import java.util.ArrayDeque;
+import java.util.Map;
+import java.util.concurrent.*;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Admission control in front of {@link TelegramService#processUpdate}. Updates are acknowledged
+ * immediately and handled by a worker pool whose queue serves callback queries and answers from
+ * players in a running game before everything else. Updates of one chat are handled one at a time
+ * and in order. Once too much work is queued, or it waits too long, low-priority updates are shed
+ * with a canned reply returned in the webhook response, and when even that is not enough
+ * high-priority ones are deferred so Telegram delivers them again later. Redelivered updates are
+ * dropped before any of this, so they take no admission capacity.
+ */
+@Service
+public class UpdateDispatcher {
+
+    private static final Logger log = LoggerFactory.getLogger(UpdateDispatcher.class);
+
+    public enum Decision { ACCEPTED, DUPLICATE, SHED, DEFERRED }
+
+    public record Admission(Decision decision, Map<String, Object> reply) {
+    }
+
+    private enum Priority { HIGH, LOW }
+
+    @Autowired
+    private TelegramService telegramService;
+
+    @Autowired
+    private StartupTimer startupTimer;
+
+    @Autowired
+    private Tracer tracer;
+
+    @Autowired
+    private UpdateDeduplicator updateDeduplicator;
+
+    @Value("${admission.max-in-flight:200}")
+    private int maxInFlight;
+
+    @Value("${admission.max-queue-latency-ms:2000}")
+    private long maxQueueLatencyMs;
+
+    @Value("${admission.shutdown-timeout-ms:10000}")
+    private long shutdownTimeoutMs;
+
+    private final ThreadPoolExecutor executor;
+    private final Map<Long, ArrayDeque<Task>> chatQueues = new ConcurrentHashMap<>();
+    private final AtomicInteger inFlight = new AtomicInteger();
+    private final AtomicLong sequence = new AtomicLong();
+    private final AtomicLong shed = new AtomicLong();
+    private final AtomicLong deferred = new AtomicLong();
+    private final AtomicBoolean overloaded = new AtomicBoolean();
+    private volatile boolean accepting = true;
+    private volatile double queueLatencyMs;
+
+    public UpdateDispatcher(@Value("${admission.workers:16}") int workers) {
+        AtomicInteger threads = new AtomicInteger();
+        // Rejection only happens once shutdown has closed the pool, to an update that slipped past the
+        // accepting check or to the next one of a chat queue after the timeout. Both were already
+        // acknowledged, so they run on the calling thread instead of being lost.
+        this.executor = new ThreadPoolExecutor(workers, workers, 0, TimeUnit.MILLISECONDS, new PriorityBlockingQueue<>(),
+                r -> new Thread(r, "update-worker-" + threads.incrementAndGet()), (task, pool) -> task.run());
+    }
+
+    /**
+     * @param receivedAt {@link System#nanoTime()} when the webhook request arrived, or 0 if unknown
+     */
+    public Admission submit(Map<String, Object> update, long receivedAt) {
+        if (!accepting) {
+            deferred.incrementAndGet();
+            return new Admission(Decision.DEFERRED, null);
+        }
+        Long chatId = chatId(update);
+        Priority priority = update.containsKey("callback_query") || (chatId != null && update.containsKey("message")
+                && telegramService.isInGame(chatId)) ? Priority.HIGH : Priority.LOW;
+
+        int current = inFlight.get();
+        boolean overload = current >= maxInFlight || (current > 0 && queueLatencyMs > maxQueueLatencyMs);
+        if (overloaded.compareAndSet(!overload, overload)) {
+            if (overload) {
+                log.warn("Overloaded: {} updates in flight, queue latency {} ms", current, (long) queueLatencyMs);
+            } else {
+                log.info("Load back to normal: {} updates in flight", current);
+            }
+        }
+
+        // Only high-priority updates are ever deferred (low ones are shed first). A deferred update
+        // is delivered again, so it must not be marked as seen.
+        if (current >= maxInFlight * 2 && priority == Priority.HIGH) {
+            deferred.incrementAndGet();
+            return new Admission(Decision.DEFERRED, null);
+        }
+        if (update.get("update_id") instanceof Number updateId && !updateDeduplicator.markSeen(updateId.longValue())) {
+            return new Admission(Decision.DUPLICATE, null);
+        }
+        if (overload && priority == Priority.LOW) {
+            shed.incrementAndGet();
+            return new Admission(Decision.SHED, cannedReply(update, chatId));
+        }
+
+        inFlight.incrementAndGet();
+        Long queueKey = queueKey(update, chatId);
+        Task task = new Task(update, chatId, queueKey, priority, receivedAt);
+        if (queueKey == null) {
+            execute(task);
+        } else {
+            boolean[] idle = new boolean[1];
+            chatQueues.compute(queueKey, (id, pending) -> {
+                if (pending == null) {
+                    idle[0] = true;
+                    return new ArrayDeque<>();
+                }
+                pending.add(task);
+                return pending;
+            });
+            if (idle[0]) {
+                execute(task);
+            }
+        }
+        return new Admission(Decision.ACCEPTED, null);
+    }
+
+    public int getInFlight() {
+        return inFlight.get();
+    }
+
+    public long getShed() {
+        return shed.get();
+    }
+
+    public long getDeferred() {
+        return deferred.get();
+    }
+
+    /**
+     * Stops taking updates, which Telegram then redelivers to the next instance, and waits for the
+     * accepted ones to finish so their replies are sent and their sessions can be snapshotted.
+     */
+    @PreDestroy
+    void shutdown() throws InterruptedException {
+        accepting = false;
+        // The pool stays open until every accepted update is done: updates waiting in a chat queue
+        // are only handed to it once the previous one of their chat finishes.
+        long deadline = System.nanoTime() + TimeUnit.MILLISECONDS.toNanos(shutdownTimeoutMs);
+        while (inFlight.get() > 0 && System.nanoTime() < deadline) {
+            TimeUnit.MILLISECONDS.sleep(20);
+        }
+        if (inFlight.get() > 0) {
+            log.warn("{} updates still in flight at shutdown", inFlight.get());
+        }
+        executor.shutdown();
+        executor.awaitTermination(Math.max(0, deadline - System.nanoTime()), TimeUnit.NANOSECONDS);
+    }
+
+    private void finished(Long queueKey) {
+        inFlight.decrementAndGet();
+        if (queueKey == null) {
+            return;
+        }
+        Task[] next = new Task[1];
+        chatQueues.compute(queueKey, (id, pending) -> {
+            next[0] = pending == null ? null : pending.poll();
+            return next[0] == null ? null : pending;
+        });
+        if (next[0] != null) {
+            execute(next[0]);
+        }
+    }
+
+    /**
+     * Hands a task to the pool. Queue latency is measured from here, not from submit: a task parked
+     * behind an earlier update of its chat is waiting on that chat, not on the pool, and must not make
+     * the dispatcher shed everyone else's updates.
+     */
+    private void execute(Task task) {
+        task.enqueuedAt = System.nanoTime();
+        executor.execute(task);
+    }
+
+    @SuppressWarnings("unchecked")
+    private static Long chatId(Map<String, Object> update) {
+        Map<String, Object> message = (Map<String, Object>) update.get("message");
+        if (message == null && update.get("callback_query") instanceof Map<?, ?> callback) {
+            message = (Map<String, Object>) callback.get("message");
+        }
+        if (message != null && message.get("chat") instanceof Map<?, ?> chat && chat.get("id") instanceof Number id) {
+            return id.longValue();
+        }
+        return null;
+    }
+
+    /**
+     * Updates sharing a key are handled one at a time. That is the chat for private chats, but in
+     * groups it is the member who sent the update (the same id as their private chat), so a quiz
+     * answered by many members is handled in parallel.
+     */
+    @SuppressWarnings("unchecked")
+    private static Long queueKey(Map<String, Object> update, Long chatId) {
+        Map<String, Object> message = (Map<String, Object>) update.get("message");
+        Map<String, Object> from = message == null ? null : (Map<String, Object>) message.get("from");
+        if (message == null && update.get("callback_query") instanceof Map<?, ?> callback) {
+            message = (Map<String, Object>) callback.get("message");
+            from = (Map<String, Object>) callback.get("from");
+        }
+        if (message != null && message.get("chat") instanceof Map<?, ?> chat
+                && ("group".equals(chat.get("type")) || "supergroup".equals(chat.get("type")))
+                && from != null && from.get("id") instanceof Number userId) {
+            return userId.longValue();
+        }
+        return chatId;
+    }
+
+    private static Map<String, Object> cannedReply(Map<String, Object> update, Long chatId) {
+        if (chatId == null || !(update.get("message") instanceof Map<?, ?> message)
+                || (message.get("chat") instanceof Map<?, ?> chat && !"private".equals(chat.get("type")))) {
+            return null;
+        }
+        String language = message.get("from") instanceof Map<?, ?> from ? (String) from.get("language_code") : null;
+        String text = language != null && language.startsWith("zh")
+                ? "⏳ 机器人现在很忙，请稍后再试。"
+                : "⏳ Бот сейчас перегружен, попробуй через минуту.";
+        return Map.of("method", "sendMessage", "chat_id", chatId, "text", text);
+    }
+
+    private final class Task implements Runnable, Comparable<Task> {
+        private final Map<String, Object> update;
+        private final Long chatId;
+        private final Long queueKey;
+        private final Priority priority;
+        private final long sequence;
+        private final long receivedAt;
+        private final long submittedAt = System.nanoTime();
+        private long enqueuedAt;
+
+        Task(Map<String, Object> update, Long chatId, Long queueKey, Priority priority, long receivedAt) {
+            this.update = update;
+            this.queueKey = queueKey;
+            this.receivedAt = receivedAt;
+            this.chatId = chatId;
+            this.priority = priority;
+            this.sequence = UpdateDispatcher.this.sequence.incrementAndGet();
+        }
+
+        @Override
+        public void run() {
+            double waitedMs = (System.nanoTime() - enqueuedAt) / 1_000_000.0;
+            queueLatencyMs = queueLatencyMs * 0.9 + waitedMs * 0.1;
+            tracer.begin(update.get("update_id"), chatId, receivedAt, submittedAt);
+            try {
+                telegramService.processUpdate(update);
+                startupTimer.updateHandled();
+            } catch (Exception e) {
+                log.error("Failed to handle update", e);
+            } finally {
+                tracer.end();
+                finished(queueKey);
+            }
+        }
+
+        @Override
+        public int compareTo(Task other) {
+            int byPriority = priority.compareTo(other.priority);
+            return byPriority != 0 ? byPriority : Long.compare(sequence, other.sequence);
+        }
+    }
+}
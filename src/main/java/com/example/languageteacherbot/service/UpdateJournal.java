@@ -0,0 +1,193 @@
+package com.example.languageteacherbot.service;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.function.Consumer;
+import java.util.stream.Stream;
+
+/**
+ * Optional append-only journal of incoming updates. The webhook only hands the parsed update to a
+ * ring buffer; a scheduled writer serializes the batch and appends it to a memory-mapped segment
+ * file. A record is an {@code int} length, the {@code long} arrival time in epoch millis and the
+ * update as JSON; a zero length marks the end of a segment. Segments roll once full and only the
+ * newest {@code journal.max-segments} are kept.
+ */
+@Service
+public class UpdateJournal {
+
+    private static final Logger log = LoggerFactory.getLogger(UpdateJournal.class);
+
+    private static final String SEGMENT_PREFIX = "updates-";
+    private static final String SEGMENT_SUFFIX = ".journal";
+    private static final int RECORD_HEADER_BYTES = Integer.BYTES + Long.BYTES;
+
+    public record Entry(long receivedAt, Map<String, Object> update) {
+    }
+
+    @Autowired
+    private ObjectMapper objectMapper;
+
+    @Value("${journal.enabled:false}")
+    private boolean enabled;
+
+    @Value("${journal.directory:journal}")
+    private String directory;
+
+    @Value("${journal.segment-size-bytes:67108864}")
+    private int segmentSizeBytes;
+
+    @Value("${journal.max-segments:48}")
+    private int maxSegments;
+
+    @Value("${journal.buffer-capacity:8192}")
+    private int bufferCapacity;
+
+    private MpscRingBuffer<Entry> buffer;
+    private final AtomicLong droppedUpdates = new AtomicLong();
+    private FileChannel channel;
+    private MappedByteBuffer segment;
+
+    @PostConstruct
+    void init() {
+        if (enabled) {
+            buffer = new MpscRingBuffer<>(bufferCapacity);
+        }
+    }
+
+    public void append(Map<String, Object> update) {
+        if (buffer == null) {
+            return;
+        }
+        if (!buffer.offer(new Entry(System.currentTimeMillis(), update))) {
+            long dropped = droppedUpdates.incrementAndGet();
+            if (dropped % 1000 == 1) {
+                log.warn("Update journal buffer full, {} updates not journaled so far", dropped);
+            }
+        }
+    }
+
+    public long getDroppedUpdates() {
+        return droppedUpdates.get();
+    }
+
+    @Scheduled(fixedDelayString = "${journal.flush-interval-ms:200}")
+    public synchronized void flush() {
+        if (buffer == null) {
+            return;
+        }
+        List<Entry> batch = new ArrayList<>();
+        buffer.drainTo(batch, buffer.capacity());
+        for (Entry entry : batch) {
+            try {
+                write(entry.receivedAt(), objectMapper.writeValueAsBytes(entry.update()));
+            } catch (IOException e) {
+                log.warn("Failed to journal update {}", entry.update().get("update_id"), e);
+            }
+        }
+    }
+
+    @PreDestroy
+    synchronized void shutdown() throws IOException {
+        flush();
+        closeSegment();
+    }
+
+    /**
+     * Reads every record of the segments in {@code directory}, oldest first.
+     */
+    public static void read(Path directory, ObjectMapper objectMapper, Consumer<Entry> consumer) throws IOException {
+        for (Path file : segments(directory)) {
+            try (FileChannel channel = FileChannel.open(file, StandardOpenOption.READ)) {
+                ByteBuffer data = channel.map(FileChannel.MapMode.READ_ONLY, 0, channel.size());
+                while (data.remaining() >= RECORD_HEADER_BYTES) {
+                    int length = data.getInt();
+                    if (length <= 0 || length > data.remaining() - Long.BYTES) {
+                        break;
+                    }
+                    long receivedAt = data.getLong();
+                    byte[] json = new byte[length];
+                    data.get(json);
+                    @SuppressWarnings("unchecked")
+                    Map<String, Object> update = objectMapper.readValue(json, Map.class);
+                    consumer.accept(new Entry(receivedAt, update));
+                }
+            }
+        }
+    }
+
+    private void write(long receivedAt, byte[] json) throws IOException {
+        int size = RECORD_HEADER_BYTES + json.length;
+        if (size + Integer.BYTES > segmentSizeBytes) {
+            log.warn("Update of {} bytes does not fit a journal segment, skipped", json.length);
+            return;
+        }
+        if (segment == null || segment.remaining() < size + Integer.BYTES) {
+            rollSegment();
+        }
+        segment.putInt(json.length);
+        segment.putLong(receivedAt);
+        segment.put(json);
+    }
+
+    private void rollSegment() throws IOException {
+        closeSegment();
+        Path dir = Paths.get(directory);
+        Files.createDirectories(dir);
+        long stamp = System.currentTimeMillis();
+        Path file;
+        while (Files.exists(file = dir.resolve(SEGMENT_PREFIX + String.format("%013d", stamp) + SEGMENT_SUFFIX))) {
+            stamp++;
+        }
+        channel = FileChannel.open(file, StandardOpenOption.CREATE_NEW, StandardOpenOption.READ, StandardOpenOption.WRITE);
+        segment = channel.map(FileChannel.MapMode.READ_WRITE, 0, segmentSizeBytes);
+        log.info("Journaling updates to {}", file);
+
+        List<Path> existing = segments(dir);
+        for (int i = 0; i < existing.size() - maxSegments; i++) {
+            Files.deleteIfExists(existing.get(i));
+        }
+    }
+
+    private void closeSegment() throws IOException {
+        if (segment != null) {
+            segment.force();
+            segment = null;
+        }
+        if (channel != null) {
+            channel.close();
+            channel = null;
+        }
+    }
+
+    private static List<Path> segments(Path directory) throws IOException {
+        if (!Files.isDirectory(directory)) {
+            return List.of();
+        }
+        try (Stream<Path> files = Files.list(directory)) {
+            return files.filter(file -> {
+                String name = file.getFileName().toString();
+                return name.startsWith(SEGMENT_PREFIX) && name.endsWith(SEGMENT_SUFFIX);
+            }).sorted().toList();
+        }
+    }
+}
@@ -0,0 +1,55 @@
+package com.example.languageteacherbot.service;
+
+import com.example.languageteacherbot.repository.UserRepository;
+import jakarta.annotation.PreDestroy;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+
+@Service
+public class UserActivityService {
+
+    private static final Logger log = LoggerFactory.getLogger(UserActivityService.class);
+    private static final int UPDATE_CHUNK_SIZE = 500;
+
+    @Autowired
+    private UserRepository userRepository;
+
+    private final Set<Long> active = ConcurrentHashMap.newKeySet();
+
+    public void touch(Long chatId) {
+        active.add(chatId);
+    }
+
+    @Scheduled(fixedDelayString = "${user-activity.flush-interval-ms:60000}")
+    public void flush() {
+        if (active.isEmpty()) {
+            return;
+        }
+        List<Long> chatIds = new ArrayList<>(active);
+        active.removeAll(chatIds);
+
+        LocalDateTime now = LocalDateTime.now();
+        for (int from = 0; from < chatIds.size(); from += UPDATE_CHUNK_SIZE) {
+            List<Long> chunk = chatIds.subList(from, Math.min(chatIds.size(), from + UPDATE_CHUNK_SIZE));
+            try {
+                userRepository.updateLastActivityAt(chunk, now);
+            } catch (Exception e) {
+                log.warn("Failed to update last activity for {} users", chunk.size(), e);
+            }
+        }
+    }
+
+    @PreDestroy
+    void shutdown() {
+        flush();
+    }
+}
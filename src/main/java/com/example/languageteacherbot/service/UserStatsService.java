@@ -0,0 +1,178 @@
+package com.example.languageteacherbot.service;
+
+import com.example.languageteacherbot.entity.UserStats;
+import com.example.languageteacherbot.entity.Word;
+import com.example.languageteacherbot.repository.UserStatsRepository;
+import jakarta.annotation.PreDestroy;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+
+import java.time.LocalDate;
+import java.util.*;
+import java.util.concurrent.ConcurrentHashMap;
+
+@Service
+public class UserStatsService {
+
+    private static final Logger log = LoggerFactory.getLogger(UserStatsService.class);
+
+    @Autowired
+    private UserStatsRepository userStatsRepository;
+
+    @Autowired
+    private VocabularyService vocabularyService;
+
+    @Value("${user-stats.idle-eviction-ms:3600000}")
+    private long idleEvictionMs;
+
+    private final Map<Long, Entry> entries = new ConcurrentHashMap<>();
+    private final Set<Long> dirty = ConcurrentHashMap.newKeySet();
+
+    public void recordAnswer(Long chatId, Word word, boolean correct) {
+        while (true) {
+            Entry entry = entry(chatId);
+            synchronized (entry) {
+                if (entry.evicted) {
+                    continue;
+                }
+                UserStats stats = entry.stats;
+                stats.setAnsweredCount(stats.getAnsweredCount() + 1);
+                if (correct) {
+                    stats.setCorrectCount(stats.getCorrectCount() + 1);
+                    if (word.getId() != null && !entry.learned.get(word.getId().intValue())) {
+                        entry.learned.set(word.getId().intValue());
+                        stats.setWordsLearned(stats.getWordsLearned() + 1);
+                        stats.getLearnedByLevel().merge(levelKey(word.getLang(), word.getLevel()), 1, Integer::sum);
+                    }
+                }
+
+                LocalDate today = LocalDate.now();
+                LocalDate last = stats.getLastStudyDate();
+                if (!today.equals(last)) {
+                    int streak = today.minusDays(1).equals(last) ? stats.getCurrentStreak() + 1 : 1;
+                    stats.setCurrentStreak(streak);
+                    stats.setBestStreak(Math.max(stats.getBestStreak(), streak));
+                    stats.setLastStudyDate(today);
+                }
+                entry.lastAccess = System.currentTimeMillis();
+                dirty.add(chatId);
+                return;
+            }
+        }
+    }
+
+    public Snapshot getSnapshot(Long chatId) {
+        while (true) {
+            Entry entry = entry(chatId);
+            synchronized (entry) {
+                if (entry.evicted) {
+                    continue;
+                }
+                UserStats stats = entry.stats;
+                LocalDate last = stats.getLastStudyDate();
+                boolean streakAlive = last != null && !last.isBefore(LocalDate.now().minusDays(1));
+                entry.lastAccess = System.currentTimeMillis();
+                return new Snapshot(stats.getWordsLearned(), stats.getAnsweredCount(), stats.getCorrectCount(),
+                        streakAlive ? stats.getCurrentStreak() : 0, stats.getBestStreak(),
+                        new TreeMap<>(stats.getLearnedByLevel()));
+            }
+        }
+    }
+
+    public long getLevelSize(String levelKey) {
+        String[] parts = levelKey.split(":");
+        return vocabularyService.getVocabulary().wordsFor(parts[0], parts[1]).size();
+    }
+
+    public static String levelKey(String lang, String level) {
+        return lang + ":" + level;
+    }
+
+    @Scheduled(fixedDelayString = "${user-stats.flush-interval-ms:30000}")
+    public void flush() {
+        List<UserStats> batch = new ArrayList<>();
+        for (Iterator<Long> it = dirty.iterator(); it.hasNext(); ) {
+            Long chatId = it.next();
+            it.remove();
+            Entry entry = entries.get(chatId);
+            if (entry == null) continue;
+            synchronized (entry) {
+                batch.add(entry.copyForPersist());
+            }
+        }
+        if (!batch.isEmpty()) {
+            try {
+                userStatsRepository.saveAll(batch);
+            } catch (Exception e) {
+                log.warn("Failed to flush stats for {} users", batch.size(), e);
+                batch.forEach(stats -> dirty.add(stats.getChatId()));
+                return;
+            }
+        }
+
+        evictIdle(System.currentTimeMillis() - idleEvictionMs);
+    }
+
+    /**
+     * Drops entries that are idle and fully flushed. The check and the removal happen under the
+     * entry's lock, and a caller that still got hold of an evicted entry retries with a fresh one.
+     */
+    private void evictIdle(long idleBefore) {
+        entries.forEach((chatId, entry) -> {
+            if (entry.lastAccess >= idleBefore) {
+                return;
+            }
+            synchronized (entry) {
+                if (entry.lastAccess < idleBefore && !dirty.contains(chatId)) {
+                    entry.evicted = true;
+                    entries.remove(chatId, entry);
+                }
+            }
+        });
+    }
+
+    @PreDestroy
+    void shutdown() {
+        flush();
+    }
+
+    private Entry entry(Long chatId) {
+        return entries.computeIfAbsent(chatId, id -> new Entry(userStatsRepository.findById(id).orElseGet(() -> {
+            UserStats stats = new UserStats();
+            stats.setChatId(id);
+            return stats;
+        })));
+    }
+
+    public record Snapshot(int wordsLearned, long answered, long correct, int currentStreak, int bestStreak,
+                           Map<String, Integer> learnedByLevel) {
+        public int accuracyPercent() {
+            return answered == 0 ? 0 : (int) Math.round(correct * 100.0 / answered);
+        }
+    }
+
+    private static class Entry {
+        private final UserStats stats;
+        private final BitSet learned;
+        private volatile long lastAccess = System.currentTimeMillis();
+        private boolean evicted;
+
+        Entry(UserStats stats) {
+            this.stats = stats;
+            this.learned = stats.getLearnedWordIds() == null ? new BitSet() : BitSet.valueOf(stats.getLearnedWordIds());
+            if (stats.getLearnedByLevel() == null) {
+                stats.setLearnedByLevel(new HashMap<>());
+            }
+        }
+
+        UserStats copyForPersist() {
+            return new UserStats(stats.getChatId(), stats.getAnsweredCount(), stats.getCorrectCount(),
+                    stats.getWordsLearned(), stats.getCurrentStreak(), stats.getBestStreak(),
+                    stats.getLastStudyDate(), learned.toByteArray(), new HashMap<>(stats.getLearnedByLevel()));
+        }
+    }
+}
@@ -0,0 +1,140 @@
+package com.example.languageteacherbot.service;
+
+import com.example.languageteacherbot.entity.Word;
+
+import java.util.*;
+import java.util.regex.Pattern;
+
+/**
+ * Immutable in-memory snapshot of the {@code words} table together with the lookup structures
+ * derived from it. A new instance is built for every load and swapped in as a whole.
+ */
+public class Vocabulary {
+
+    private static final Pattern TRANSLATION_SEPARATOR = Pattern.compile("[,;]");
+    private static final Pattern TONE_DIGITS_AND_SPACES = Pattern.compile("[0-9\\s]+");
+
+    private final long version;
+    private final List<Word> words;
+    private final Map<Long, Word> byId;
+    private final Map<String, Word> byLangAndWord;
+    private final Map<String, List<Word>> byLangAndLevel;
+    private final Map<String, WordSearchIndex> searchIndexes;
+    private final DistractorIndex distractorIndex;
+    private final Map<String, Set<Long>> byTranslation;
+    private final Map<String, Set<Long>> byAnswer;
+
+    public Vocabulary(long version, List<Word> words) {
+        this.version = version;
+        this.words = List.copyOf(words);
+
+        Map<Long, Word> ids = new HashMap<>();
+        Map<String, Word> texts = new HashMap<>();
+        Map<String, List<Word>> levels = new HashMap<>();
+        Map<String, List<Word>> langs = new HashMap<>();
+        Map<String, Set<Long>> translations = new HashMap<>();
+        Map<String, Set<Long>> answers = new HashMap<>();
+        for (Word word : this.words) {
+            for (String variant : TRANSLATION_SEPARATOR.split(word.getTranslation())) {
+                String normalized = WordSearchIndex.normalize(variant);
+                if (!normalized.isEmpty()) {
+                    translations.computeIfAbsent(key(word.getLang(), normalized), k -> new HashSet<>()).add(word.getId());
+                }
+            }
+            answers.computeIfAbsent(key(word.getLang(), answerKey(word.getWord())), k -> new HashSet<>()).add(word.getId());
+            if ("zh".equals(word.getLang()) && word.getTranscription() != null && !word.getTranscription().isBlank()) {
+                answers.computeIfAbsent(key(word.getLang(), answerKey(word.getTranscription())), k -> new HashSet<>()).add(word.getId());
+            }
+            ids.put(word.getId(), word);
+            texts.put(key(word.getLang(), word.getWord()), word);
+            levels.computeIfAbsent(key(word.getLang(), word.getLevel()), k -> new ArrayList<>()).add(word);
+            langs.computeIfAbsent(word.getLang(), k -> new ArrayList<>()).add(word);
+        }
+        levels.replaceAll((k, list) -> List.copyOf(list));
+        this.byId = Map.copyOf(ids);
+        this.byLangAndWord = Map.copyOf(texts);
+        this.byLangAndLevel = Map.copyOf(levels);
+
+        Map<String, WordSearchIndex> indexes = new HashMap<>();
+        langs.forEach((lang, list) -> indexes.put(lang, new WordSearchIndex(list)));
+        this.searchIndexes = Map.copyOf(indexes);
+        this.distractorIndex = new DistractorIndex(byLangAndLevel.values());
+        translations.replaceAll((k, set) -> Set.copyOf(set));
+        answers.replaceAll((k, set) -> Set.copyOf(set));
+        this.byTranslation = Map.copyOf(translations);
+        this.byAnswer = Map.copyOf(answers);
+    }
+
+    public long getVersion() {
+        return version;
+    }
+
+    public List<Word> getWords() {
+        return words;
+    }
+
+    public Optional<Word> findById(Long id) {
+        return Optional.ofNullable(byId.get(id));
+    }
+
+    public Optional<Word> findByWord(String lang, String word) {
+        return Optional.ofNullable(byLangAndWord.get(key(lang, word)));
+    }
+
+    public List<Word> wordsFor(String lang, String level) {
+        return byLangAndLevel.getOrDefault(key(lang, level), List.of());
+    }
+
+    public List<WordSearchIndex.Match> search(String lang, String query, int limit) {
+        WordSearchIndex index = searchIndexes.get(lang);
+        return index == null ? List.of() : index.search(query, limit);
+    }
+
+    public List<WordSearchIndex.Match> searchAllLanguages(String query, int limit) {
+        List<WordSearchIndex.Match> matches = new ArrayList<>();
+        for (WordSearchIndex index : searchIndexes.values()) {
+            matches.addAll(index.search(query, limit));
+        }
+        matches.sort(Comparator.comparingInt((WordSearchIndex.Match m) -> m.type().ordinal())
+                .thenComparingInt(m -> m.field().ordinal()));
+        return matches.size() > limit ? List.copyOf(matches.subList(0, limit)) : matches;
+    }
+
+    public List<Word> pickDistractors(Word word, int count) {
+        return distractorIndex.pick(word, count);
+    }
+
+    /**
+     * Ids of the words of {@code lang} that have {@code translation} among their comma-separated
+     * translation variants.
+     */
+    public Set<Long> wordsTranslatedAs(String lang, String translation) {
+        return byTranslation.getOrDefault(key(lang, WordSearchIndex.normalize(translation)), Set.of());
+    }
+
+    /**
+     * Grades a native-to-target answer: {@code answer} is accepted if it spells any word of the
+     * prompt's language that shares a translation variant with {@code prompt}. For Chinese the
+     * pinyin of such a word is accepted too, without tone marks or tone numbers.
+     */
+    public boolean isReverseAnswer(Word prompt, String answer) {
+        Set<Long> typed = byAnswer.getOrDefault(key(prompt.getLang(), answerKey(answer)), Set.of());
+        if (typed.isEmpty()) {
+            return false;
+        }
+        for (String variant : TRANSLATION_SEPARATOR.split(prompt.getTranslation())) {
+            if (!Collections.disjoint(typed, wordsTranslatedAs(prompt.getLang(), variant))) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    private static String answerKey(String text) {
+        return TONE_DIGITS_AND_SPACES.matcher(WordSearchIndex.normalize(text)).replaceAll("");
+    }
+
+    private static String key(String lang, String level) {
+        return lang + ":" + level;
+    }
+}
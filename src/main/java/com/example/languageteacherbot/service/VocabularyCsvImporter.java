@@ -0,0 +1,119 @@
+package com.example.languageteacherbot.service;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.core.io.ClassPathResource;
+import org.springframework.core.io.FileSystemResource;
+import org.springframework.core.io.Resource;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.io.BufferedReader;
+import java.io.IOException;
+import java.io.InputStreamReader;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.util.*;
+import java.util.stream.Stream;
+
+/**
+ * Upserts words from the shipped {@code wordsA1.csv} and any {@code *.csv} files in
+ * {@code vocabulary.csv-directory} into the {@code words} table, matched by word and language.
+ * Words missing from the files are left alone; they may still be referenced by users' lists.
+ */
+@Service
+public class VocabularyCsvImporter {
+
+    private static final Logger log = LoggerFactory.getLogger(VocabularyCsvImporter.class);
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    @Value("${vocabulary.csv-directory:vocabulary}")
+    private String csvDirectory;
+
+    public record Result(int files, int inserted, int updated) {
+    }
+
+    private record Row(String word, String translation, String transcription, String level, String lang) {
+    }
+
+    @Transactional
+    public Result importFiles() throws IOException {
+        Map<String, Row> existing = new HashMap<>();
+        jdbcTemplate.query("select word, translation, transcription, level, lang from words", rs -> {
+            Row row = new Row(rs.getString(1), rs.getString(2), rs.getString(3), rs.getString(4), rs.getString(5));
+            existing.put(key(row.lang(), row.word()), row);
+        });
+
+        List<Resource> sources = sources();
+        Map<String, Row> inserts = new LinkedHashMap<>();
+        Map<String, Row> updates = new LinkedHashMap<>();
+        for (Resource source : sources) {
+            try (BufferedReader reader = new BufferedReader(new InputStreamReader(source.getInputStream(), StandardCharsets.UTF_8))) {
+                reader.readLine();
+                String line;
+                while ((line = reader.readLine()) != null) {
+                    if (line.isBlank()) continue;
+                    List<String> fields = CsvLineParser.parse(line, ',');
+                    if (fields.size() < 5) continue;
+                    Row row = new Row(fields.get(0), fields.get(1), fields.get(2).isEmpty() ? null : fields.get(2),
+                            fields.get(3), fields.get(4));
+                    String key = key(row.lang(), row.word());
+                    Row current = existing.get(key);
+                    if (current == null) {
+                        inserts.put(key, row);
+                    } else if (!current.equals(row)) {
+                        updates.put(key, row);
+                    }
+                }
+            }
+        }
+
+        if (!inserts.isEmpty()) {
+            jdbcTemplate.batchUpdate("insert into words (word, translation, transcription, level, lang) values (?, ?, ?, ?, ?)",
+                    new ArrayList<>(inserts.values()), 500, (ps, row) -> {
+                        ps.setString(1, row.word());
+                        ps.setString(2, row.translation());
+                        ps.setString(3, row.transcription());
+                        ps.setString(4, row.level());
+                        ps.setString(5, row.lang());
+                    });
+        }
+        if (!updates.isEmpty()) {
+            jdbcTemplate.batchUpdate("update words set translation = ?, transcription = ?, level = ? where word = ? and lang = ?",
+                    new ArrayList<>(updates.values()), 500, (ps, row) -> {
+                        ps.setString(1, row.translation());
+                        ps.setString(2, row.transcription());
+                        ps.setString(3, row.level());
+                        ps.setString(4, row.word());
+                        ps.setString(5, row.lang());
+                    });
+        }
+        log.info("Imported vocabulary from {} files: {} inserted, {} updated", sources.size(), inserts.size(), updates.size());
+        return new Result(sources.size(), inserts.size(), updates.size());
+    }
+
+    private List<Resource> sources() throws IOException {
+        List<Resource> sources = new ArrayList<>();
+        sources.add(new ClassPathResource("wordsA1.csv"));
+        Path directory = Paths.get(csvDirectory);
+        if (Files.isDirectory(directory)) {
+            try (Stream<Path> files = Files.list(directory)) {
+                files.filter(path -> path.getFileName().toString().endsWith(".csv"))
+                        .sorted()
+                        .forEach(path -> sources.add(new FileSystemResource(path)));
+            }
+        }
+        return sources;
+    }
+
+    private static String key(String lang, String word) {
+        return lang + ":" + word;
+    }
+}
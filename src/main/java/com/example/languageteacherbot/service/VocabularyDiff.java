@@ -0,0 +1,49 @@
+package com.example.languageteacherbot.service;
+
+import com.example.languageteacherbot.entity.Word;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Objects;
+
+/**
+ * Words added, changed and removed between two vocabulary snapshots, matched by id.
+ */
+public record VocabularyDiff(long fromVersion, long toVersion, int total,
+                             List<Word> added, List<Word> changed, List<Word> removed) {
+
+    public static VocabularyDiff between(Vocabulary previous, Vocabulary next) {
+        List<Word> added = new ArrayList<>();
+        List<Word> changed = new ArrayList<>();
+        List<Word> removed = new ArrayList<>();
+        for (Word word : next.getWords()) {
+            Word old = previous == null ? null : previous.findById(word.getId()).orElse(null);
+            if (old == null) {
+                added.add(word);
+            } else if (!sameContent(old, word)) {
+                changed.add(word);
+            }
+        }
+        if (previous != null) {
+            for (Word word : previous.getWords()) {
+                if (next.findById(word.getId()).isEmpty()) {
+                    removed.add(word);
+                }
+            }
+        }
+        return new VocabularyDiff(previous == null ? 0 : previous.getVersion(), next.getVersion(),
+                next.getWords().size(), List.copyOf(added), List.copyOf(changed), List.copyOf(removed));
+    }
+
+    public boolean isEmpty() {
+        return added.isEmpty() && changed.isEmpty() && removed.isEmpty();
+    }
+
+    private static boolean sameContent(Word a, Word b) {
+        return Objects.equals(a.getWord(), b.getWord())
+                && Objects.equals(a.getTranslation(), b.getTranslation())
+                && Objects.equals(a.getTranscription(), b.getTranscription())
+                && Objects.equals(a.getLevel(), b.getLevel())
+                && Objects.equals(a.getLang(), b.getLang());
+    }
+}
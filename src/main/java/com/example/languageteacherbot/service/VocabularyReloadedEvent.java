@@ -0,0 +1,4 @@
+package com.example.languageteacherbot.service;
+
+public record VocabularyReloadedEvent(Vocabulary vocabulary) {
+}
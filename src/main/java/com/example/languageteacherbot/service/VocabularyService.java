@@ -0,0 +1,84 @@
+package com.example.languageteacherbot.service;
+
+import com.example.languageteacherbot.repository.WordRepository;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.context.event.EventListener;
+import org.springframework.stereotype.Service;
+
+import java.util.concurrent.atomic.AtomicReference;
+
+@Service
+public class VocabularyService {
+
+    private static final Logger log = LoggerFactory.getLogger(VocabularyService.class);
+
+    @Autowired
+    private WordRepository wordRepository;
+
+    @Autowired
+    private ApplicationEventPublisher eventPublisher;
+
+    @Value("${vocabulary.warm-up:true}")
+    private boolean warmUp;
+
+    private final AtomicReference<Vocabulary> current = new AtomicReference<>();
+
+    @EventListener(ApplicationReadyEvent.class)
+    public void warmUp() {
+        if (!warmUp) {
+            return;
+        }
+        Thread thread = new Thread(() -> {
+            try {
+                getVocabulary();
+            } catch (Exception e) {
+                log.warn("Vocabulary warm-up failed, it will be loaded on first use", e);
+            }
+        }, "vocabulary-warmup");
+        thread.setDaemon(true);
+        thread.start();
+    }
+
+    public Vocabulary getVocabulary() {
+        Vocabulary vocabulary = current.get();
+        if (vocabulary == null) {
+            synchronized (this) {
+                vocabulary = current.get();
+                if (vocabulary == null) {
+                    vocabulary = load(1);
+                    current.set(vocabulary);
+                }
+            }
+        }
+        return vocabulary;
+    }
+
+    /**
+     * Builds a new snapshot from the {@code words} table next to the current one and swaps it in.
+     * Readers keep using the previous snapshot until the swap; words held by running games stay
+     * usable even if they were removed.
+     */
+    public synchronized VocabularyDiff reload() {
+        Vocabulary previous = current.get();
+        Vocabulary vocabulary = load(previous == null ? 1 : previous.getVersion() + 1);
+        VocabularyDiff diff = VocabularyDiff.between(previous, vocabulary);
+        current.set(vocabulary);
+        log.info("Vocabulary v{} -> v{}: {} added, {} changed, {} removed", diff.fromVersion(), diff.toVersion(),
+                diff.added().size(), diff.changed().size(), diff.removed().size());
+        eventPublisher.publishEvent(new VocabularyReloadedEvent(vocabulary));
+        return diff;
+    }
+
+    private Vocabulary load(long version) {
+        long start = System.currentTimeMillis();
+        Vocabulary vocabulary = new Vocabulary(version, wordRepository.findAll());
+        log.info("Loaded vocabulary v{} with {} words in {} ms", version, vocabulary.getWords().size(),
+                System.currentTimeMillis() - start);
+        return vocabulary;
+    }
+}
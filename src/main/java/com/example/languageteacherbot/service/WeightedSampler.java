@@ -0,0 +1,57 @@
+package com.example.languageteacherbot.service;
+
+import java.util.Arrays;
+import java.util.Random;
+
+/**
+ * Weighted sampling without replacement over a Fenwick tree of the weights. Building the tree is
+ * linear, each draw descends it in O(log n) and then zeroes the drawn weight, so drawing {@code k}
+ * items costs O(n + k log n).
+ */
+public final class WeightedSampler {
+
+    private WeightedSampler() {
+    }
+
+    /**
+     * Draws up to {@code k} distinct indices with probability proportional to {@code weights};
+     * indices with weight 0 are never drawn.
+     */
+    public static int[] sample(long[] weights, int k, Random random) {
+        int n = weights.length;
+        long[] tree = new long[n + 1];
+        long total = 0;
+        for (int i = 1; i <= n; i++) {
+            tree[i] += weights[i - 1];
+            total += weights[i - 1];
+            int parent = i + (i & -i);
+            if (parent <= n) {
+                tree[parent] += tree[i];
+            }
+        }
+
+        int highestBit = Integer.highestOneBit(Math.max(1, n));
+        int draws = Math.min(k, n);
+        int[] drawn = new int[draws];
+        int count = 0;
+        while (count < draws && total > 0) {
+            long target = (long) (random.nextDouble() * total);
+            int position = 0;
+            for (int step = highestBit; step > 0; step >>= 1) {
+                int next = position + step;
+                if (next <= n && tree[next] <= target) {
+                    position = next;
+                    target -= tree[next];
+                }
+            }
+            long weight = weights[position];
+            weights[position] = 0;
+            total -= weight;
+            for (int i = position + 1; i <= n; i += i & -i) {
+                tree[i] -= weight;
+            }
+            drawn[count++] = position;
+        }
+        return count == draws ? drawn : Arrays.copyOf(drawn, count);
+    }
+}
@@ -0,0 +1,190 @@
+package com.example.languageteacherbot.service;
+
+import com.example.languageteacherbot.entity.Word;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import jakarta.annotation.PostConstruct;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.support.JdbcUtils;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.io.BufferedReader;
+import java.io.BufferedWriter;
+import java.io.IOException;
+import java.io.InputStreamReader;
+import java.io.OutputStreamWriter;
+import java.io.UncheckedIOException;
+import java.io.Writer;
+import java.nio.charset.StandardCharsets;
+import java.sql.DatabaseMetaData;
+import java.sql.PreparedStatement;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.regex.Pattern;
+
+/**
+ * Export and import of a user's "my words" list as tab separated text. Export streams rows from a
+ * database cursor straight into a {@code sendDocument} upload; import reads the downloaded file line
+ * by line and inserts in batches, relying on the {@code (user_chat_id, word_id)} unique constraint to
+ * skip words the user already has.
+ */
+@Service
+public class WordListTransferService {
+
+    private static final Logger log = LoggerFactory.getLogger(WordListTransferService.class);
+    private static final Pattern SPECIAL = Pattern.compile("[\\t\\r\\n]");
+
+    private static final String EXPORT_SQL =
+            "select w.word, w.translation, w.transcription, w.level, w.lang from user_words uw " +
+            "join words w on w.id = uw.word_id where uw.user_chat_id = ? order by uw.id";
+    private static final String INSERT_POSTGRES_SQL =
+            "insert into user_words (user_chat_id, word_id, marked_as_unknown) values (?, ?, true) " +
+            "on conflict (user_chat_id, word_id) do nothing";
+    private static final String INSERT_GENERIC_SQL =
+            "insert into user_words (user_chat_id, word_id, marked_as_unknown) select ?, ?, true " +
+            "where not exists (select 1 from user_words where user_chat_id = ? and word_id = ?)";
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    @Autowired
+    private PlatformTransactionManager transactionManager;
+
+    @Autowired
+    private TelegramApiClient telegramApiClient;
+
+    @Autowired
+    private VocabularyService vocabularyService;
+
+    @Autowired
+    private ObjectMapper objectMapper;
+
+    @Value("${word-transfer.fetch-size:500}")
+    private int fetchSize;
+
+    @Value("${word-transfer.batch-size:500}")
+    private int batchSize;
+
+    private boolean postgres;
+
+    public record ImportResult(int lines, int added, int unknown) {
+    }
+
+    @PostConstruct
+    void init() {
+        try {
+            String product = JdbcUtils.extractDatabaseMetaData(jdbcTemplate.getDataSource(),
+                    DatabaseMetaData::getDatabaseProductName);
+            postgres = "PostgreSQL".equalsIgnoreCase(product);
+        } catch (Exception e) {
+            log.warn("Could not detect database product, using generic import SQL", e);
+        }
+    }
+
+    /**
+     * Uploads the user's list as {@code my_words.tsv}; the header lines let Anki import it directly.
+     */
+    public void export(Long chatId, String caption) {
+        TransactionTemplate transaction = new TransactionTemplate(transactionManager);
+        transaction.setReadOnly(true);
+        transaction.executeWithoutResult(status -> telegramApiClient.uploadStreaming("sendDocument",
+                Map.of("chat_id", chatId, "caption", caption), "document", "my_words.tsv",
+                "text/tab-separated-values; charset=utf-8", out -> {
+                    Writer writer = new BufferedWriter(new OutputStreamWriter(out, StandardCharsets.UTF_8));
+                    writer.write("#separator:tab\n#html:false\n#columns:word\ttranslation\ttranscription\tlevel\tlang\n");
+                    jdbcTemplate.query(connection -> {
+                        PreparedStatement statement = connection.prepareStatement(EXPORT_SQL);
+                        statement.setFetchSize(fetchSize);
+                        statement.setLong(1, chatId);
+                        return statement;
+                    }, row -> {
+                        try {
+                            writer.write(clean(row.getString(1)) + "\t" + clean(row.getString(2)) + "\t"
+                                    + clean(row.getString(3)) + "\t" + clean(row.getString(4)) + "\t"
+                                    + clean(row.getString(5)) + "\n");
+                        } catch (IOException e) {
+                            throw new UncheckedIOException(e);
+                        }
+                    });
+                    writer.flush();
+                }));
+    }
+
+    /**
+     * Adds every known word listed in the Telegram document {@code fileId} to the user's list. The first
+     * column is the word; a fifth column, as written by {@link #export}, overrides {@code defaultLang}.
+     */
+    public ImportResult importWords(Long chatId, String fileId, String defaultLang) throws Exception {
+        String response = telegramApiClient.call("getFile", Map.of("file_id", fileId));
+        String filePath = objectMapper.readTree(response).path("result").path("file_path").asText(null);
+        if (filePath == null) {
+            throw new IllegalStateException("getFile returned no file_path");
+        }
+
+        Vocabulary vocabulary = vocabularyService.getVocabulary();
+        return telegramApiClient.download(filePath, download -> {
+            int lines = 0;
+            int added = 0;
+            int unknown = 0;
+            List<Long> batch = new ArrayList<>(batchSize);
+            try (BufferedReader reader = new BufferedReader(new InputStreamReader(download.getBody(), StandardCharsets.UTF_8))) {
+                String line;
+                while ((line = reader.readLine()) != null) {
+                    if (line.isBlank() || line.startsWith("#")) {
+                        continue;
+                    }
+                    lines++;
+                    List<String> fields = line.indexOf('\t') >= 0
+                            ? List.of(line.split("\t", -1))
+                            : CsvLineParser.parse(line, ',');
+                    String lang = fields.size() >= 5 && !fields.get(4).isBlank() ? fields.get(4).trim() : defaultLang;
+                    Optional<Word> word = vocabulary.findByWord(lang, fields.get(0).replace("\uFEFF", "").trim());
+                    if (word.isEmpty()) {
+                        unknown++;
+                        continue;
+                    }
+                    batch.add(word.get().getId());
+                    if (batch.size() == batchSize) {
+                        added += insert(chatId, batch);
+                        batch.clear();
+                    }
+                }
+            }
+            if (!batch.isEmpty()) {
+                added += insert(chatId, batch);
+            }
+            log.info("Imported {} of {} lines into the list of {}", added, lines, chatId);
+            return new ImportResult(lines, added, unknown);
+        });
+    }
+
+    private int insert(Long chatId, List<Long> wordIds) {
+        int[] counts = jdbcTemplate.batchUpdate(postgres ? INSERT_POSTGRES_SQL : INSERT_GENERIC_SQL, wordIds, wordIds.size(),
+                (statement, wordId) -> {
+                    statement.setLong(1, chatId);
+                    statement.setLong(2, wordId);
+                    if (!postgres) {
+                        statement.setLong(3, chatId);
+                        statement.setLong(4, wordId);
+                    }
+                })[0];
+        int added = 0;
+        for (int count : counts) {
+            if (count > 0) {
+                added += count;
+            }
+        }
+        return added;
+    }
+
+    private static String clean(String value) {
+        return value == null ? "" : SPECIAL.matcher(value).replaceAll(" ");
+    }
+}
@@ -0,0 +1,198 @@
+package com.example.languageteacherbot.service;
+
+import com.example.languageteacherbot.entity.Word;
+
+import java.text.Normalizer;
+import java.util.*;
+import java.util.regex.Pattern;
+
+/**
+ * Search index over the word, transcription and translation variants of one language. Every
+ * normalized key is expanded into its suffixes and the suffixes are kept sorted, so prefix and
+ * substring queries are a binary search followed by a scan over the matching range.
+ */
+public class WordSearchIndex {
+
+    private static final Pattern COMBINING_MARKS = Pattern.compile("\\p{M}+");
+    private static final Pattern IGNORED = Pattern.compile("[’'`\\-.!?()\\[\\]«»\"]+");
+    private static final Pattern SPACES = Pattern.compile("\\s+");
+    private static final Pattern TRANSLATION_SEPARATOR = Pattern.compile("[,;]");
+    private static final int MAX_SCANNED_SUFFIXES = 5000;
+
+    public enum Field { WORD, TRANSCRIPTION, TRANSLATION }
+
+    public enum MatchType { EXACT, PREFIX, WORD_PREFIX, SUBSTRING }
+
+    public record Match(Word word, Field field, MatchType type) {
+    }
+
+    private final Word[] words;
+    private final String[] keys;
+    private final int[] keyWords;
+    private final Field[] keyFields;
+    private final int[] suffixKeys;
+    private final int[] suffixOffsets;
+
+    public WordSearchIndex(List<Word> source) {
+        this.words = source.toArray(new Word[0]);
+
+        List<String> keyList = new ArrayList<>();
+        List<Integer> wordList = new ArrayList<>();
+        List<Field> fieldList = new ArrayList<>();
+        for (int i = 0; i < words.length; i++) {
+            Word word = words[i];
+            Set<String> seen = new HashSet<>();
+            addKey(normalize(word.getWord()), i, Field.WORD, seen, keyList, wordList, fieldList);
+            if (word.getTranscription() != null) {
+                String transcription = normalize(word.getTranscription());
+                addKey(transcription, i, Field.TRANSCRIPTION, seen, keyList, wordList, fieldList);
+                addKey(compact(transcription), i, Field.TRANSCRIPTION, seen, keyList, wordList, fieldList);
+            }
+            for (String variant : TRANSLATION_SEPARATOR.split(word.getTranslation())) {
+                addKey(normalize(variant), i, Field.TRANSLATION, seen, keyList, wordList, fieldList);
+            }
+        }
+
+        this.keys = keyList.toArray(new String[0]);
+        this.keyWords = wordList.stream().mapToInt(Integer::intValue).toArray();
+        this.keyFields = fieldList.toArray(new Field[0]);
+
+        int suffixCount = 0;
+        for (String key : keys) {
+            suffixCount += key.length();
+        }
+        Integer[] order = new Integer[suffixCount];
+        int[] rawKeys = new int[suffixCount];
+        int[] rawOffsets = new int[suffixCount];
+        int n = 0;
+        for (int k = 0; k < keys.length; k++) {
+            for (int offset = 0; offset < keys[k].length(); offset++) {
+                rawKeys[n] = k;
+                rawOffsets[n] = offset;
+                order[n] = n;
+                n++;
+            }
+        }
+        Arrays.sort(order, (a, b) -> compareSuffixes(rawKeys[a], rawOffsets[a], rawKeys[b], rawOffsets[b]));
+
+        this.suffixKeys = new int[suffixCount];
+        this.suffixOffsets = new int[suffixCount];
+        for (int i = 0; i < suffixCount; i++) {
+            suffixKeys[i] = rawKeys[order[i]];
+            suffixOffsets[i] = rawOffsets[order[i]];
+        }
+    }
+
+    public List<Match> search(String query, int limit) {
+        String normalized = normalize(query);
+        if (normalized.isEmpty() || limit <= 0) {
+            return List.of();
+        }
+
+        Map<Integer, int[]> best = new HashMap<>();
+        collect(normalized, best);
+        String compacted = compact(normalized);
+        if (!compacted.equals(normalized)) {
+            collect(compacted, best);
+        }
+
+        List<Map.Entry<Integer, int[]>> ranked = new ArrayList<>(best.entrySet());
+        ranked.sort(Comparator.<Map.Entry<Integer, int[]>>comparingInt(e -> e.getValue()[0])
+                .thenComparingInt(e -> e.getValue()[1])
+                .thenComparingInt(Map.Entry::getKey));
+
+        List<Match> result = new ArrayList<>(Math.min(limit, ranked.size()));
+        for (Map.Entry<Integer, int[]> entry : ranked) {
+            if (result.size() == limit) break;
+            int score = entry.getValue()[0];
+            result.add(new Match(words[entry.getKey()], Field.values()[score % Field.values().length],
+                    MatchType.values()[score / Field.values().length]));
+        }
+        return result;
+    }
+
+    public static String normalize(String text) {
+        if (text == null) {
+            return "";
+        }
+        String decomposed = Normalizer.normalize(text.toLowerCase(Locale.ROOT), Normalizer.Form.NFD);
+        String stripped = IGNORED.matcher(COMBINING_MARKS.matcher(decomposed).replaceAll("")).replaceAll("");
+        return SPACES.matcher(stripped).replaceAll(" ").trim();
+    }
+
+    private static String compact(String normalized) {
+        return normalized.replace(" ", "");
+    }
+
+    private void collect(String query, Map<Integer, int[]> best) {
+        int position = lowerBound(query);
+        int scanned = 0;
+        while (position < suffixKeys.length && scanned < MAX_SCANNED_SUFFIXES) {
+            int key = suffixKeys[position];
+            int offset = suffixOffsets[position];
+            if (!keys[key].startsWith(query, offset)) {
+                break;
+            }
+
+            MatchType type;
+            if (offset == 0) {
+                type = keys[key].length() == query.length() ? MatchType.EXACT : MatchType.PREFIX;
+            } else if (keys[key].charAt(offset - 1) == ' ') {
+                type = MatchType.WORD_PREFIX;
+            } else {
+                type = MatchType.SUBSTRING;
+            }
+            int score = type.ordinal() * Field.values().length + keyFields[key].ordinal();
+            int[] current = best.get(keyWords[key]);
+            if (current == null || score < current[0] || (score == current[0] && keys[key].length() < current[1])) {
+                best.put(keyWords[key], new int[]{score, keys[key].length()});
+            }
+            position++;
+            scanned++;
+        }
+    }
+
+    private int lowerBound(String query) {
+        int low = 0;
+        int high = suffixKeys.length;
+        while (low < high) {
+            int mid = (low + high) >>> 1;
+            if (compareSuffix(keys[suffixKeys[mid]], suffixOffsets[mid], query) < 0) {
+                low = mid + 1;
+            } else {
+                high = mid;
+            }
+        }
+        return low;
+    }
+
+    private static int compareSuffix(String key, int offset, String query) {
+        int length = Math.min(key.length() - offset, query.length());
+        for (int i = 0; i < length; i++) {
+            int diff = key.charAt(offset + i) - query.charAt(i);
+            if (diff != 0) return diff;
+        }
+        return (key.length() - offset) - query.length();
+    }
+
+    private int compareSuffixes(int keyA, int offsetA, int keyB, int offsetB) {
+        String a = keys[keyA];
+        String b = keys[keyB];
+        int length = Math.min(a.length() - offsetA, b.length() - offsetB);
+        for (int i = 0; i < length; i++) {
+            int diff = a.charAt(offsetA + i) - b.charAt(offsetB + i);
+            if (diff != 0) return diff;
+        }
+        return (a.length() - offsetA) - (b.length() - offsetB);
+    }
+
+    private static void addKey(String key, int word, Field field, Set<String> seen,
+                               List<String> keys, List<Integer> words, List<Field> fields) {
+        if (key.isEmpty() || !seen.add(field + key)) {
+            return;
+        }
+        keys.add(key);
+        words.add(word);
+        fields.add(field);
+    }
+}
@@ -0,0 +1,179 @@
+package com.example.languageteacherbot.service;
+
+import com.example.languageteacherbot.entity.UserWordStats;
+import com.example.languageteacherbot.entity.Word;
+import com.example.languageteacherbot.repository.UserWordStatsRepository;
+import jakarta.annotation.PreDestroy;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+
+import java.nio.ByteBuffer;
+import java.time.LocalDateTime;
+import java.util.*;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ThreadLocalRandom;
+
+/**
+ * Per-user, per-word answer counts and the adaptive deck built from them. Each user's counts live in
+ * a {@link LongIntHashMap} from word id to successes (high 16 bits) and failures (low 16 bits),
+ * stored as one packed row and written back in batches. Decks are drawn with
+ * {@link WeightedSampler}, weighting every word by its smoothed error rate, with unseen words
+ * weighted like weak ones.
+ */
+@Service
+public class WordStatsService {
+
+    private static final Logger log = LoggerFactory.getLogger(WordStatsService.class);
+
+    private static final int COUNT_LIMIT = 0x7FFF;
+    private static final int ENTRY_BYTES = Long.BYTES + Integer.BYTES;
+    private static final long UNSEEN_WEIGHT = 12;
+    private static final long ERROR_WEIGHT = 16;
+
+    @Autowired
+    private UserWordStatsRepository userWordStatsRepository;
+
+    @Value("${word-stats.idle-eviction-ms:3600000}")
+    private long idleEvictionMs;
+
+    private final Map<Long, Entry> entries = new ConcurrentHashMap<>();
+    private final Set<Long> dirty = ConcurrentHashMap.newKeySet();
+
+    public void recordAnswer(Long chatId, Long wordId, boolean correct) {
+        while (true) {
+            Entry entry = entry(chatId);
+            synchronized (entry) {
+                if (entry.evicted) {
+                    continue;
+                }
+                int packed = entry.counts.get(wordId, 0);
+                int successes = packed >>> 16;
+                int failures = packed & COUNT_LIMIT;
+                if (correct) {
+                    successes = Math.min(COUNT_LIMIT, successes + 1);
+                } else {
+                    failures = Math.min(COUNT_LIMIT, failures + 1);
+                }
+                entry.counts.put(wordId, successes << 16 | failures);
+                entry.lastAccess = System.currentTimeMillis();
+                dirty.add(chatId);
+                return;
+            }
+        }
+    }
+
+    /**
+     * Draws {@code size} distinct words from {@code candidates}, favouring the ones the user gets
+     * wrong most often and the ones they have not seen yet.
+     */
+    public List<Word> sampleDeck(Long chatId, List<Word> candidates, int size) {
+        long[] weights = new long[candidates.size()];
+        Entry entry = entry(chatId);
+        synchronized (entry) {
+            for (int i = 0; i < weights.length; i++) {
+                int packed = entry.counts.get(candidates.get(i).getId(), -1);
+                weights[i] = packed < 0 ? UNSEEN_WEIGHT : weight(packed >>> 16, packed & COUNT_LIMIT);
+            }
+            entry.lastAccess = System.currentTimeMillis();
+        }
+
+        int[] drawn = WeightedSampler.sample(weights, size, ThreadLocalRandom.current());
+        List<Word> deck = new ArrayList<>(drawn.length);
+        for (int index : drawn) {
+            deck.add(candidates.get(index));
+        }
+        return deck;
+    }
+
+    @Scheduled(fixedDelayString = "${word-stats.flush-interval-ms:30000}")
+    public void flush() {
+        List<UserWordStats> batch = new ArrayList<>();
+        LocalDateTime now = LocalDateTime.now();
+        for (Iterator<Long> it = dirty.iterator(); it.hasNext(); ) {
+            Long chatId = it.next();
+            it.remove();
+            Entry entry = entries.get(chatId);
+            if (entry == null) continue;
+            synchronized (entry) {
+                batch.add(new UserWordStats(chatId, encode(entry.counts), now));
+            }
+        }
+        if (!batch.isEmpty()) {
+            try {
+                userWordStatsRepository.saveAll(batch);
+            } catch (Exception e) {
+                log.warn("Failed to flush word stats for {} users", batch.size(), e);
+                batch.forEach(stats -> dirty.add(stats.getChatId()));
+                return;
+            }
+        }
+
+        evictIdle(System.currentTimeMillis() - idleEvictionMs);
+    }
+
+    /**
+     * Same protocol as {@link UserStatsService}: an idle, flushed entry is flagged and removed under
+     * its lock, and {@link #recordAnswer} retries when it got hold of an evicted one.
+     */
+    private void evictIdle(long idleBefore) {
+        entries.forEach((chatId, entry) -> {
+            if (entry.lastAccess >= idleBefore) {
+                return;
+            }
+            synchronized (entry) {
+                if (entry.lastAccess < idleBefore && !dirty.contains(chatId)) {
+                    entry.evicted = true;
+                    entries.remove(chatId, entry);
+                }
+            }
+        });
+    }
+
+    @PreDestroy
+    void shutdown() {
+        flush();
+    }
+
+    /**
+     * Laplace-smoothed error rate scaled to {@code 1..ERROR_WEIGHT + 1}: a word answered right every
+     * time fades towards weight 1 but is never excluded.
+     */
+    static long weight(int successes, int failures) {
+        return 1 + Math.round(ERROR_WEIGHT * (failures + 1.0) / (successes + failures + 2.0));
+    }
+
+    private Entry entry(Long chatId) {
+        return entries.computeIfAbsent(chatId, id -> new Entry(userWordStatsRepository.findById(id)
+                .map(stats -> decode(stats.getData()))
+                .orElseGet(() -> new LongIntHashMap(64))));
+    }
+
+    private static byte[] encode(LongIntHashMap counts) {
+        ByteBuffer buffer = ByteBuffer.allocate(counts.size() * ENTRY_BYTES);
+        counts.forEach((wordId, packed) -> buffer.putLong(wordId).putInt(packed));
+        return buffer.array();
+    }
+
+    private static LongIntHashMap decode(byte[] data) {
+        ByteBuffer buffer = ByteBuffer.wrap(data);
+        LongIntHashMap counts = new LongIntHashMap(data.length / ENTRY_BYTES);
+        while (buffer.remaining() >= ENTRY_BYTES) {
+            counts.put(buffer.getLong(), buffer.getInt());
+        }
+        return counts;
+    }
+
+    private static class Entry {
+        private final LongIntHashMap counts;
+        private volatile long lastAccess = System.currentTimeMillis();
+        private boolean evicted;
+
+        Entry(LongIntHashMap counts) {
+            this.counts = counts;
+        }
+    }
+}
@@ -0,0 +1,32 @@
+create table users (
+    chat_id          bigint       not null,
+    first_name       varchar(255),
+    last_name        varchar(255),
+    native_language  varchar(255),
+    target_language  varchar(255),
+    level            varchar(255),
+    registered_at    timestamp(6),
+    last_activity_at timestamp(6),
+    primary key (chat_id)
+);
+
+create table words (
+    id            bigint generated by default as identity,
+    word          varchar(255) not null,
+    translation   varchar(255) not null,
+    level         varchar(255) not null,
+    lang          varchar(255) not null,
+    transcription varchar(255),
+    primary key (id),
+    constraint uk_words_word_lang unique (word, lang)
+);
+
+create table user_words (
+    id                bigint generated by default as identity,
+    user_chat_id      bigint  not null,
+    word_id           bigint  not null,
+    marked_as_unknown boolean not null,
+    primary key (id),
+    constraint uk_user_words_user_word unique (user_chat_id, word_id),
+    constraint fk_user_words_word foreign key (word_id) references words (id)
+);
@@ -0,0 +1,53 @@
+-- Databases started before Flyway already have these tables from schema.sql, hence "if not exists".
+
+create sequence if not exists learning_events_seq start with 1 increment by 50;
+
+create table if not exists learning_events (
+    id            bigint       not null,
+    occurred_at   timestamp(6) not null,
+    chat_id       bigint       not null,
+    event_type    varchar(16)  not null,
+    game_type     varchar(16)  not null,
+    word_id       bigint,
+    outcome       varchar(16),
+    latency_ms    bigint,
+    correct_count integer,
+    total_count   integer,
+    primary key (id)
+);
+
+create index if not exists idx_learning_events_occurred_at on learning_events (occurred_at);
+
+create table if not exists user_stats (
+    chat_id          bigint  not null,
+    answered_count   bigint  not null,
+    correct_count    bigint  not null,
+    words_learned    integer not null,
+    current_streak   integer not null,
+    best_streak      integer not null,
+    last_study_date  date,
+    primary key (chat_id)
+);
+
+create table if not exists user_stats_levels (
+    chat_id       bigint      not null,
+    level_key     varchar(16) not null,
+    learned_count integer     not null,
+    primary key (chat_id, level_key),
+    constraint fk_user_stats_levels_user_stats foreign key (chat_id) references user_stats (chat_id)
+);
+
+create table if not exists broadcast_jobs (
+    id           bigint generated by default as identity,
+    job_key      varchar(64)   not null,
+    kind         varchar(16)   not null,
+    status       varchar(16)   not null,
+    text         varchar(4096),
+    last_chat_id bigint        not null,
+    sent_count   integer       not null,
+    failed_count integer       not null,
+    created_at   timestamp(6)  not null,
+    finished_at  timestamp(6),
+    primary key (id),
+    constraint uk_broadcast_jobs_job_key unique (job_key)
+);
@@ -0,0 +1,8 @@
+create table leaderboard_scores (
+    period     varchar(16)  not null,
+    board      varchar(16)  not null,
+    chat_id    bigint       not null,
+    score      integer      not null,
+    updated_at timestamp(6) not null,
+    primary key (period, board, chat_id)
+);
@@ -0,0 +1,8 @@
+create table word_media (
+    word_id       bigint       not null,
+    kind          varchar(16)  not null,
+    telegram_type varchar(16)  not null,
+    file_id       varchar(255) not null,
+    uploaded_at   timestamp(6) not null,
+    primary key (word_id, kind)
+);
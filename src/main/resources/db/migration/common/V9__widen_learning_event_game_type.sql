@@ -0,0 +1,2 @@
+-- "flashcard_self_check" and "flashcard_reverse" do not fit the original 16 characters.
+alter table learning_events alter column game_type set data type varchar(32);
@@ -0,0 +1,4 @@
+-- Same key as on PostgreSQL, where the table can then be range-partitioned by occurred_at.
+
+alter table learning_events drop primary key;
+alter table learning_events add primary key (id, occurred_at);
@@ -0,0 +1,5 @@
+alter table user_stats add column if not exists learned_word_ids varbinary;
+
+create index if not exists idx_words_lang_level on words (lang, level);
+
+create index if not exists idx_user_words_user_chat_id on user_words (user_chat_id, marked_as_unknown, word_id);
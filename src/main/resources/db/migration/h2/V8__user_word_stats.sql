@@ -0,0 +1,5 @@
+create table user_word_stats (
+    chat_id    bigint       not null primary key,
+    data       varbinary    not null,
+    updated_at timestamp(6) not null
+);
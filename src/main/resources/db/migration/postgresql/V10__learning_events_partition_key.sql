@@ -0,0 +1,5 @@
+-- Range partitioning by occurred_at needs the partition column in every unique constraint,
+-- so the primary key includes it.
+
+alter table learning_events drop constraint learning_events_pkey;
+alter table learning_events add primary key (id, occurred_at);
@@ -0,0 +1,8 @@
+alter table user_stats add column if not exists learned_word_ids bytea;
+
+-- findByLevelAndLang reads every column of the matching words, so the index carries them all
+-- and the vocabulary load can be answered by an index-only scan.
+create index if not exists idx_words_lang_level on words (lang, level) include (id, word, translation, transcription);
+
+-- findByUserChatId and the per-user "words due" counts.
+create index if not exists idx_user_words_user_chat_id on user_words (user_chat_id) include (id, word_id, marked_as_unknown);
@@ -0,0 +1,5 @@
+create table session_snapshots (
+    chat_id  bigint       not null primary key,
+    data     bytea        not null,
+    saved_at timestamp(6) not null
+);
@@ -0,0 +1,60 @@
+package com.example.languageteacherbot.service;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Random;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+class LeaderboardTests {
+
+    @Test
+    void playersWithEqualScoresShareARank() {
+        Leaderboard board = new Leaderboard();
+        board.set(1, 10);
+        board.set(2, 30);
+        board.set(3, 10);
+        board.set(4, 0);
+
+        assertEquals(1, board.rank(2));
+        assertEquals(2, board.rank(1));
+        assertEquals(2, board.rank(3));
+        assertEquals(4, board.rank(4));
+        assertEquals(0, board.rank(5));
+        assertEquals(List.of(new Leaderboard.Ranked(2, 30), new Leaderboard.Ranked(1, 10)), board.top(2));
+    }
+
+    @Test
+    void rankFollowsScoreChanges() {
+        Leaderboard board = new Leaderboard();
+        board.set(1, 5);
+        board.set(2, 7);
+        board.add(1, 3);
+
+        assertEquals(1, board.rank(1));
+        assertEquals(2, board.rank(2));
+        assertEquals(2, board.size());
+    }
+
+    @Test
+    void ranksSurviveGrowingTheTree() {
+        Leaderboard board = new Leaderboard();
+        Map<Long, Integer> expected = new HashMap<>();
+        Random random = new Random(42);
+        for (int round = 0; round < 2_000; round++) {
+            long chatId = random.nextInt(200);
+            int points = random.nextInt(round < 1_000 ? 40 : 400);
+            board.add(chatId, points);
+            expected.merge(chatId, points, Integer::sum);
+        }
+
+        for (Map.Entry<Long, Integer> entry : expected.entrySet()) {
+            long higher = expected.values().stream().filter(score -> score > entry.getValue()).count();
+            assertEquals(higher + 1, board.rank(entry.getKey()), "rank of " + entry.getKey());
+        }
+        assertEquals(expected.size(), board.size());
+    }
+}
@@ -0,0 +1,45 @@
+package com.example.languageteacherbot.service;
+
+import com.example.languageteacherbot.entity.LearningEvent;
+import com.example.languageteacherbot.repository.LearningEventRepository;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.test.context.ActiveProfiles;
+import org.springframework.test.context.bean.override.mockito.MockitoBean;
+
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+@SpringBootTest
+@ActiveProfiles("test")
+class LearningEventServiceTests {
+
+    private static final List<String> GAME_TYPES =
+            List.of("flashcard", "flashcard_mc", "flashcard_self_check", "flashcard_reverse", "sentence");
+
+    @Autowired
+    private LearningEventService learningEventService;
+
+    @Autowired
+    private LearningEventRepository learningEventRepository;
+
+    @MockitoBean
+    private TelegramApiClient telegramApiClient;
+
+    @Test
+    void flushesEventsOfEveryGameType() {
+        learningEventService.flush();
+        long before = learningEventRepository.count();
+
+        for (String gameType : GAME_TYPES) {
+            learningEventService.recordShown(1L, gameType, 1L);
+            learningEventService.recordAnswered(1L, gameType, 1L, LearningEvent.Outcome.CORRECT, 1200);
+            learningEventService.recordGameFinished(1L, gameType, 1, 1, 5000);
+        }
+        learningEventService.flush();
+
+        assertEquals(before + GAME_TYPES.size() * 3, learningEventRepository.count());
+    }
+}
@@ -0,0 +1,47 @@
+package com.example.languageteacherbot.service;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.HashMap;
+import java.util.Map;
+import java.util.Random;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+class LongIntHashMapTests {
+
+    @Test
+    void zeroIsAnOrdinaryKey() {
+        LongIntHashMap map = new LongIntHashMap(4);
+        assertEquals(-1, map.get(0, -1));
+
+        map.put(0, 7);
+        map.put(0, 8);
+        map.put(16, 1);
+
+        assertEquals(8, map.get(0, -1));
+        assertEquals(1, map.get(16, -1));
+        assertEquals(2, map.size());
+        Map<Long, Integer> seen = new HashMap<>();
+        map.forEach(seen::put);
+        assertEquals(Map.of(0L, 8, 16L, 1), seen);
+    }
+
+    @Test
+    void keepsEveryEntryAcrossRehashes() {
+        LongIntHashMap map = new LongIntHashMap(1);
+        Map<Long, Integer> expected = new HashMap<>();
+        Random random = new Random(3);
+        for (int i = 0; i < 10_000; i++) {
+            long key = i % 3 == 0 ? random.nextLong() : random.nextInt(5_000) - 2_500;
+            map.put(key, i);
+            expected.put(key, i);
+        }
+
+        assertEquals(expected.size(), map.size());
+        expected.forEach((key, value) -> assertEquals(value, map.get(key, -1), "value of " + key));
+        Map<Long, Integer> seen = new HashMap<>();
+        map.forEach(seen::put);
+        assertEquals(expected, seen);
+    }
+}
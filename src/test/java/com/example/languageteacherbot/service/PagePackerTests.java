@@ -0,0 +1,49 @@
+package com.example.languageteacherbot.service;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.assertArrayEquals;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+class PagePackerTests {
+
+    private final PagePacker pagePacker = new PagePacker();
+
+    @BeforeEach
+    void setUp() {
+        ReflectionTestUtils.setField(pagePacker, "textLimit", 10);
+    }
+
+    @Test
+    void leavesShortEntriesAlone() {
+        assertEquals("short\n", pagePacker.fit("short\n", 0));
+    }
+
+    @Test
+    void cutsLongEntriesToTheBudget() {
+        assertEquals("12345678…\n", pagePacker.fit("1234567890abc\n", 0));
+    }
+
+    @Test
+    void doesNotSplitAnEscape() {
+        String entry = "1234567" + PagePacker.escapeMarkdown("_tail") + "\n";
+        assertEquals("1234567…\n", pagePacker.fit(entry, 0));
+    }
+
+    @Test
+    void doesNotSplitASurrogatePair() {
+        assertEquals("1234567…\n", pagePacker.fit("1234567😀abc\n", 0));
+    }
+
+    @Test
+    void packsPagesGreedily() {
+        int[] boundaries = pagePacker.boundaries(List.of("aaaa", "bbbb", "cc", "dddddd", "e"), 0);
+
+        assertArrayEquals(new int[] {0, 3, 5}, boundaries);
+        assertEquals(2, pagePacker.pageCount(boundaries));
+    }
+}
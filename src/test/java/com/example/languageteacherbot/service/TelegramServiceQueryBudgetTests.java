@@ -0,0 +1,158 @@
+package com.example.languageteacherbot.service;
+
+import jakarta.persistence.EntityManagerFactory;
+import org.hibernate.SessionFactory;
+import org.hibernate.stat.Statistics;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.test.context.ActiveProfiles;
+import org.springframework.test.context.bean.override.mockito.MockitoBean;
+
+import java.util.Map;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.function.Consumer;
+
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import static org.mockito.Mockito.clearInvocations;
+import static org.mockito.Mockito.mockingDetails;
+
+/**
+ * Drives scripted conversations through {@link TelegramService#processUpdate} and fails when one
+ * needs more SQL statements or Bot API calls than its budget. Every scenario is played once on a
+ * throwaway chat first so lazily built caches are not charged to it; buffered writes flushed by
+ * scheduled jobs are not counted.
+ */
+@SpringBootTest
+@ActiveProfiles("test")
+class TelegramServiceQueryBudgetTests {
+
+    private static final AtomicLong CHAT_IDS = new AtomicLong(1_000_000);
+    private static final AtomicLong UPDATE_IDS = new AtomicLong(1_000_000);
+
+    @Autowired
+    private TelegramService telegramService;
+
+    @Autowired
+    private EntityManagerFactory entityManagerFactory;
+
+    @MockitoBean
+    private TelegramApiClient telegramApiClient;
+
+    private Statistics statistics;
+
+    @BeforeEach
+    void setUp() {
+        statistics = entityManagerFactory.unwrap(SessionFactory.class).getStatistics();
+        statistics.setStatisticsEnabled(true);
+    }
+
+    @Test
+    void onboarding() {
+        assertBudget("onboarding", 17, 5, chatId -> { }, this::register);
+    }
+
+    @Test
+    void mainMenuNavigation() {
+        assertBudget("main menu navigation", 17, 6, this::register, chatId -> {
+            send(chatId, "📊 Статистика");
+            send(chatId, "🏆 Рейтинг");
+            send(chatId, "📘 Словарь");
+            send(chatId, "⬅️ Назад в меню");
+            send(chatId, "🔁 Мои слова");
+        });
+    }
+
+    @Test
+    void typingFlashcardGame() {
+        assertBudget("typing flashcard game", 38, 23, this::openFlashcardOptions, chatId -> {
+            send(chatId, "10 слов");
+            for (int i = 0; i < 10; i++) {
+                send(chatId, "-");
+            }
+        });
+    }
+
+    @Test
+    void selfCheckFlashcardGame() {
+        assertBudget("self-check flashcard game", 23, 24, chatId -> {
+            openFlashcardOptions(chatId);
+            send(chatId, "🃏 Самопроверка");
+        }, chatId -> {
+            send(chatId, "10 слов");
+            for (int i = 0; i < 10; i++) {
+                press(chatId, "fc:" + i + ":" + (i % 2));
+            }
+        });
+    }
+
+    @Test
+    void myWordsGame() {
+        assertBudget("my words game", 16, 5, chatId -> {
+            openFlashcardOptions(chatId);
+            send(chatId, "10 слов");
+            for (int i = 0; i < 10; i++) {
+                send(chatId, "-");
+            }
+        }, chatId -> {
+            send(chatId, "🔁 Мои слова");
+            send(chatId, "⬅️ Назад в меню");
+            send(chatId, "🎮 Игры");
+            send(chatId, "Flash card (Карточки)");
+            send(chatId, "Только мои слова");
+        });
+    }
+
+    private void assertBudget(String scenario, long maxStatements, int maxCalls, Consumer<Long> setUp, Consumer<Long> steps) {
+        long warmUpChatId = CHAT_IDS.incrementAndGet();
+        setUp.accept(warmUpChatId);
+        steps.accept(warmUpChatId);
+
+        long chatId = CHAT_IDS.incrementAndGet();
+        setUp.accept(chatId);
+        statistics.clear();
+        clearInvocations(telegramApiClient);
+        steps.accept(chatId);
+
+        long statements = statistics.getPrepareStatementCount();
+        int calls = mockingDetails(telegramApiClient).getInvocations().size();
+        assertTrue(statements <= maxStatements,
+                scenario + " issued " + statements + " SQL statements, budget is " + maxStatements);
+        assertTrue(calls <= maxCalls,
+                scenario + " made " + calls + " Bot API calls, budget is " + maxCalls);
+    }
+
+    private void register(Long chatId) {
+        send(chatId, "/start");
+        send(chatId, "🇷🇺 Русский");
+        send(chatId, "🇨🇳 中文");
+        send(chatId, "A1");
+    }
+
+    private void openFlashcardOptions(Long chatId) {
+        register(chatId);
+        send(chatId, "🎮 Игры");
+        send(chatId, "Flash card (Карточки)");
+    }
+
+    private void send(Long chatId, String text) {
+        telegramService.processUpdate(Map.of(
+                "update_id", UPDATE_IDS.incrementAndGet(),
+                "message", Map.of(
+                        "message_id", 1,
+                        "chat", Map.of("id", chatId, "type", "private"),
+                        "from", Map.of("id", chatId, "first_name", "Test"),
+                        "text", text)));
+    }
+
+    private void press(Long chatId, String data) {
+        telegramService.processUpdate(Map.of(
+                "update_id", UPDATE_IDS.incrementAndGet(),
+                "callback_query", Map.of(
+                        "id", String.valueOf(UPDATE_IDS.get()),
+                        "from", Map.of("id", chatId, "first_name", "Test"),
+                        "message", Map.of("message_id", 2, "chat", Map.of("id", chatId, "type", "private")),
+                        "data", data)));
+    }
+}
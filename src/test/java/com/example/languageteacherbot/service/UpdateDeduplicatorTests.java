@@ -0,0 +1,47 @@
+package com.example.languageteacherbot.service;
+
+import org.junit.jupiter.api.Test;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class UpdateDeduplicatorTests {
+
+    @Test
+    void dropsRepeatsWithinTheWindow() {
+        UpdateDeduplicator deduplicator = new UpdateDeduplicator(4);
+
+        assertTrue(deduplicator.markSeen(0));
+        assertTrue(deduplicator.markSeen(1));
+        assertFalse(deduplicator.markSeen(0));
+        assertFalse(deduplicator.markSeen(1));
+        assertEquals(2, deduplicator.getDuplicatesDropped());
+    }
+
+    @Test
+    void wrapsAroundTheRing() {
+        UpdateDeduplicator deduplicator = new UpdateDeduplicator(4);
+        for (long id = 100; id < 104; id++) {
+            assertTrue(deduplicator.markSeen(id));
+        }
+
+        // 104..107 reuse the slots of 100..103
+        for (long id = 104; id < 108; id++) {
+            assertTrue(deduplicator.markSeen(id), "first delivery of " + id);
+            assertFalse(deduplicator.markSeen(id), "redelivery of " + id);
+        }
+        // ids that fell out of the window cannot be told apart from redeliveries
+        assertFalse(deduplicator.markSeen(101));
+    }
+
+    @Test
+    void newerIdTakesOverTheSlotOfAnUnseenOlderOne() {
+        UpdateDeduplicator deduplicator = new UpdateDeduplicator(4);
+
+        assertTrue(deduplicator.markSeen(9));
+        assertFalse(deduplicator.markSeen(5));
+        assertTrue(deduplicator.markSeen(13));
+        assertFalse(deduplicator.markSeen(9));
+    }
+}
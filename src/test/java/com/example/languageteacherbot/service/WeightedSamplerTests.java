@@ -0,0 +1,45 @@
+package com.example.languageteacherbot.service;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.HashSet;
+import java.util.Random;
+import java.util.Set;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNotEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class WeightedSamplerTests {
+
+    private static final long[] WEIGHTS = {0, 5, 1, 0, 0, 9, 2, 0, 1, 0, 3};
+
+    @Test
+    void neverDrawsZeroWeights() {
+        Random random = new Random(7);
+        for (int run = 0; run < 1_000; run++) {
+            for (int index : WeightedSampler.sample(WEIGHTS.clone(), 3, random)) {
+                assertNotEquals(0, WEIGHTS[index], "drew zero-weight index " + index);
+            }
+        }
+    }
+
+    @Test
+    void drawsDistinctIndicesUntilWeightRunsOut() {
+        Random random = new Random(11);
+        for (int run = 0; run < 1_000; run++) {
+            int[] drawn = WeightedSampler.sample(WEIGHTS.clone(), WEIGHTS.length, random);
+            Set<Integer> distinct = new HashSet<>();
+            for (int index : drawn) {
+                assertTrue(distinct.add(index), "drew index " + index + " twice");
+            }
+            assertEquals(6, drawn.length);
+        }
+    }
+
+    @Test
+    void allZeroWeightsDrawNothing() {
+        assertEquals(0, WeightedSampler.sample(new long[5], 3, new Random(1)).length);
+        assertEquals(0, WeightedSampler.sample(new long[0], 3, new Random(1)).length);
+    }
+}